@@ -19,12 +19,15 @@
 package org.apache.fineract.cn.accounting.api.v1.client;
 
 import org.apache.fineract.cn.accounting.api.v1.domain.Account;
+import org.apache.fineract.cn.accounting.api.v1.domain.AccountBalance;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountCommand;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountEntry;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountEntryPage;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountPage;
 import org.apache.fineract.cn.accounting.api.v1.domain.ChartOfAccountEntry;
 import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntryPage;
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntryResult;
 import org.apache.fineract.cn.accounting.api.v1.domain.Ledger;
 import org.apache.fineract.cn.accounting.api.v1.domain.LedgerPage;
 import org.apache.fineract.cn.accounting.api.v1.domain.TransactionType;
@@ -35,7 +38,11 @@ import org.apache.fineract.cn.accounting.api.v1.domain.financial.statement.Trial
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.validation.Valid;
 import org.apache.fineract.cn.api.annotation.ThrowsException;
 import org.apache.fineract.cn.api.annotation.ThrowsExceptions;
@@ -135,6 +142,24 @@ public interface LedgerManager {
                                     @RequestParam(value = "sortColumn", required = false) final String sortColumn,
                                     @RequestParam(value = "sortDirection", required = false) final String sortDirection);
 
+  /**
+   * Returns the accounts without totals if slice is set, saving the count query, hasNextPage tells whether another
+   * page follows.
+   */
+  @RequestMapping(
+      value = "/ledgers/{identifier}/accounts",
+      method = RequestMethod.GET,
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = LedgerNotFoundException.class)
+  AccountPage fetchAccountsOfLedger(@PathVariable("identifier") final String identifier,
+                                    @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                                    @RequestParam(value = "size", required = false) final Integer size,
+                                    @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                                    @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                    @RequestParam(value = "slice", required = false) final Boolean slice);
+
   @RequestMapping(
       value = "/accounts",
       method = RequestMethod.POST,
@@ -210,27 +235,92 @@ public interface LedgerManager {
                                        @RequestParam(value = "sortColumn", required = false) final String sortColumn,
                                        @RequestParam(value = "sortDirection", required = false) final String sortDirection);
 
+  /**
+   * Returns the account entries without totals if slice is set, saving the count query, hasNextPage tells whether
+   * another page follows.
+   */
+  @RequestMapping(
+      value = "/accounts/{identifier}/entries",
+      method = RequestMethod.GET,
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = AccountNotFoundException.class)
+  AccountEntryPage fetchAccountEntries(@PathVariable("identifier") final String identifier,
+                                       @RequestParam(value = "dateRange", required = false) final String dateRange,
+                                       @RequestParam(value = "message", required = false) final String message,
+                                       @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                                       @RequestParam(value = "size", required = false) final Integer size,
+                                       @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                                       @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                       @RequestParam(value = "slice", required = false) final Boolean slice);
+
+  @RequestMapping(
+      value = "/accounts/{identifier}/entries",
+      method = RequestMethod.GET,
+      params = "pageSize",
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = AccountNotFoundException.class)
+  AccountEntryPage fetchAccountEntryPage(@PathVariable("identifier") final String identifier,
+                                         @RequestParam(value = "dateRange", required = false) final String dateRange,
+                                         @RequestParam(value = "message", required = false) final String message,
+                                         @RequestParam(value = "cursor", required = false) final String cursor,
+                                         @RequestParam(value = "pageSize") final Integer pageSize,
+                                         @RequestParam(value = "sortDirection", required = false) final String sortDirection);
+
+  @RequestMapping(
+      value = "/accounts/{identifier}/balance",
+      method = RequestMethod.GET,
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = AccountNotFoundException.class)
+  AccountBalance findAccountBalance(@PathVariable("identifier") final String identifier,
+                                    @RequestParam(value = "asOf") final String asOf);
+
+  /**
+   * Returns the balances of all given accounts as of the given date in one call, unknown accounts are left out.
+   */
+  @RequestMapping(
+      value = "/accounts/balances",
+      method = RequestMethod.POST,
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  List<AccountBalance> fetchAccountBalances(@RequestParam(value = "asOf") final String asOf,
+                                            @RequestBody final List<String> identifiers);
+
   // These helper functions are implemented here rather than in the client because it is easier to test
   // and mock if it's part of the accounting interface, rather than part of the client calling it.
     default Stream<Account> streamAccountsOfLedger(
       final String ledgerIdentifer,
       final String sortDirection) {
-    final AccountPage firstPage = this.fetchAccountsOfLedger(
-        ledgerIdentifer,
-        0,
-        10,
-        null,
-        null);
-    final Integer pageCount = firstPage.getTotalPages();
+    final LedgerManager ledgerManager = this;
     switch (sortDirection) {
       case "ASC":
-        // Sort column is always date and order always ascending so that the order and adjacency of account
-        // entries is always stable. This has the advantage that the set of account entries included in the
-        // stream is set the moment the first call to fetchAccountEntries (above) is made.
-        return Stream.iterate(0, (i) -> i + 1).limit(pageCount)
-            .map(i -> this.fetchAccountsOfLedger(ledgerIdentifer, i, 10, "lastModifiedOn", "ASC"))
+        // Pages are fetched as slices while the stream is consumed, so no total count is needed.
+        return StreamSupport.stream(
+            new Spliterators.AbstractSpliterator<AccountPage>(Long.MAX_VALUE, Spliterator.ORDERED) {
+              private int pageIndex = 0;
+              private boolean hasNextPage = true;
+
+              @Override
+              public boolean tryAdvance(final Consumer<? super AccountPage> action) {
+                if (!this.hasNextPage) {
+                  return false;
+                }
+                final AccountPage page = ledgerManager.fetchAccountsOfLedger(
+                    ledgerIdentifer, this.pageIndex++, 10, "lastModifiedOn", "ASC", Boolean.TRUE);
+                this.hasNextPage = Boolean.TRUE.equals(page.getHasNextPage());
+                action.accept(page);
+                return true;
+              }
+            }, false)
             .flatMap(pageI -> pageI.getAccounts().stream());
       case "DESC":
+        final Integer pageCount = this.fetchAccountsOfLedger(ledgerIdentifer, 0, 10, null, null).getTotalPages();
         return Stream.iterate(pageCount - 1, (i) -> i - 1).limit(pageCount)
             .map(i -> this.fetchAccountsOfLedger(ledgerIdentifer, i, 10, "lastModifiedOn", "DESC"))
             .flatMap(pageI -> {
@@ -247,25 +337,34 @@ public interface LedgerManager {
       final String dateRange,
       final String message,
       final String sortDirection) {
-    final AccountEntryPage firstPage = this.fetchAccountEntries(
-        accountIdentifier,
-        dateRange,
-        message,
-        0,
-        10,
-        null,
-        null);
-
-    final Integer pageCount = firstPage.getTotalPages();
+    final LedgerManager ledgerManager = this;
     switch (sortDirection) {
       case "ASC":
         // Sort column is always date and order always ascending so that the order and adjacency of account
-        // entries is always stable. This has the advantage that the set of account entries included in the
-        // stream is set the moment the first call to fetchAccountEntries (above) is made.
-        return Stream.iterate(0, (i) -> i + 1).limit(pageCount)
-            .map(i -> this.fetchAccountEntries(accountIdentifier, dateRange, message, i, 10, "transactionDate", "ASC"))
+        // entries is always stable. Pages are fetched as slices while the stream is consumed, so no total count
+        // is needed.
+        return StreamSupport.stream(
+            new Spliterators.AbstractSpliterator<AccountEntryPage>(Long.MAX_VALUE, Spliterator.ORDERED) {
+              private int pageIndex = 0;
+              private boolean hasNextPage = true;
+
+              @Override
+              public boolean tryAdvance(final Consumer<? super AccountEntryPage> action) {
+                if (!this.hasNextPage) {
+                  return false;
+                }
+                final AccountEntryPage page = ledgerManager.fetchAccountEntries(
+                    accountIdentifier, dateRange, message, this.pageIndex++, 10, "transactionDate", "ASC", Boolean.TRUE);
+                this.hasNextPage = Boolean.TRUE.equals(page.getHasNextPage());
+                action.accept(page);
+                return true;
+              }
+            }, false)
             .flatMap(pageI -> pageI.getAccountEntries().stream());
       case "DESC":
+        // The set of account entries included in the stream is set the moment the page count is fetched.
+        final Integer pageCount =
+            this.fetchAccountEntries(accountIdentifier, dateRange, message, 0, 10, null, null).getTotalPages();
         return Stream.iterate(pageCount - 1, (i) -> i - 1).limit(pageCount)
             .map(i -> this.fetchAccountEntries(accountIdentifier, dateRange, message, i, 10, "transactionDate", "ASC"))
             .flatMap(pageI -> {
@@ -307,6 +406,17 @@ public interface LedgerManager {
   })
   void createJournalEntry(@RequestBody final JournalEntry journalEntry);
 
+  @RequestMapping(
+      value = "/journal/batch",
+      method = RequestMethod.POST,
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = JournalEntryValidationException.class)
+  })
+  List<JournalEntryResult> createJournalEntries(@RequestBody final List<JournalEntry> journalEntries);
+
   @RequestMapping(
       value = "/journal",
       method = RequestMethod.GET,
@@ -317,6 +427,48 @@ public interface LedgerManager {
                                          @RequestParam(value = "account", required = false) final String accountNumber,
                                          @RequestParam(value = "amount", required = false) final BigDecimal amount);
 
+  @RequestMapping(
+      value = "/journal",
+      method = RequestMethod.GET,
+      params = "pageSize",
+      produces = {MediaType.ALL_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = JournalEntryValidationException.class)
+  JournalEntryPage fetchJournalEntryPage(@RequestParam(value = "dateRange", required = false) final String dateRange,
+                                         @RequestParam(value = "account", required = false) final String accountNumber,
+                                         @RequestParam(value = "amount", required = false) final BigDecimal amount,
+                                         @RequestParam(value = "cursor", required = false) final String cursor,
+                                         @RequestParam(value = "pageSize") final Integer pageSize);
+
+  // Walks the pages of the journal lazily, following the cursor returned with each page, so only one page is
+  // held in memory at a time.
+  default Stream<JournalEntry> streamJournalEntries(
+      final String dateRange,
+      final String accountNumber,
+      final BigDecimal amount) {
+    final LedgerManager ledgerManager = this;
+    final Spliterator<JournalEntryPage> pages =
+        new Spliterators.AbstractSpliterator<JournalEntryPage>(Long.MAX_VALUE, Spliterator.ORDERED) {
+          private String cursor;
+          private boolean done;
+
+          @Override
+          public boolean tryAdvance(final Consumer<? super JournalEntryPage> action) {
+            if (this.done) {
+              return false;
+            }
+            final JournalEntryPage page =
+                ledgerManager.fetchJournalEntryPage(dateRange, accountNumber, amount, this.cursor, 100);
+            this.cursor = page.getNextCursor();
+            this.done = this.cursor == null;
+            action.accept(page);
+            return true;
+          }
+        };
+    return StreamSupport.stream(pages, false).flatMap(page -> page.getJournalEntries().stream());
+  }
+
   @RequestMapping(
       value = "/journal/{transactionIdentifier}",
       method = RequestMethod.GET,
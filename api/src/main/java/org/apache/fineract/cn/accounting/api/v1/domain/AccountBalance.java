@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.api.v1.domain;
+
+import java.util.Objects;
+
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class AccountBalance {
+
+  private String accountIdentifier;
+  private String asOf;
+  private Double balance;
+
+  public AccountBalance() {
+    super();
+  }
+
+  public String getAccountIdentifier() {
+    return this.accountIdentifier;
+  }
+
+  public void setAccountIdentifier(final String accountIdentifier) {
+    this.accountIdentifier = accountIdentifier;
+  }
+
+  public String getAsOf() {
+    return this.asOf;
+  }
+
+  public void setAsOf(final String asOf) {
+    this.asOf = asOf;
+  }
+
+  public Double getBalance() {
+    return this.balance;
+  }
+
+  public void setBalance(final Double balance) {
+    this.balance = balance;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    AccountBalance that = (AccountBalance) o;
+    return Objects.equals(accountIdentifier, that.accountIdentifier) &&
+        Objects.equals(asOf, that.asOf) &&
+        Objects.equals(balance, that.balance);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(accountIdentifier, asOf, balance);
+  }
+}
@@ -25,6 +25,8 @@ public class AccountEntryPage {
   private List<AccountEntry> accountEntries;
   private Integer totalPages;
   private Long totalElements;
+  private Boolean hasNextPage;
+  private String nextCursor;
 
   public AccountEntryPage() {
     super();
@@ -53,4 +55,20 @@ public class AccountEntryPage {
   public void setTotalElements(Long totalElements) {
     this.totalElements = totalElements;
   }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
+  public Boolean getHasNextPage() {
+    return hasNextPage;
+  }
+
+  public void setHasNextPage(Boolean hasNextPage) {
+    this.hasNextPage = hasNextPage;
+  }
 }
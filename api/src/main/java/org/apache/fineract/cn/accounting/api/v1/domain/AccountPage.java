@@ -25,6 +25,7 @@ public class AccountPage {
   private List<Account> accounts;
   private Integer totalPages;
   private Long totalElements;
+  private Boolean hasNextPage;
 
   public AccountPage() {
     super();
@@ -53,4 +54,12 @@ public class AccountPage {
   public void setTotalElements(Long totalElements) {
     this.totalElements = totalElements;
   }
+
+  public Boolean getHasNextPage() {
+    return hasNextPage;
+  }
+
+  public void setHasNextPage(Boolean hasNextPage) {
+    this.hasNextPage = hasNextPage;
+  }
 }
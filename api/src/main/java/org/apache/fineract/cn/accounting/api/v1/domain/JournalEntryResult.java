@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.api.v1.domain;
+
+import java.util.Objects;
+
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class JournalEntryResult {
+
+  private String transactionIdentifier;
+  private Status status;
+  private String message;
+
+  public JournalEntryResult() {
+    super();
+  }
+
+  public JournalEntryResult(final String transactionIdentifier, final Status status, final String message) {
+    super();
+    this.transactionIdentifier = transactionIdentifier;
+    this.status = status;
+    this.message = message;
+  }
+
+  public String getTransactionIdentifier() {
+    return this.transactionIdentifier;
+  }
+
+  public void setTransactionIdentifier(final String transactionIdentifier) {
+    this.transactionIdentifier = transactionIdentifier;
+  }
+
+  public String getStatus() {
+    return this.status.name();
+  }
+
+  public void setStatus(final String status) {
+    this.status = Status.valueOf(status);
+  }
+
+  public String getMessage() {
+    return this.message;
+  }
+
+  public void setMessage(final String message) {
+    this.message = message;
+  }
+
+  public enum Status {
+    ACCEPTED,
+    INVALID,
+    DUPLICATE
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    JournalEntryResult that = (JournalEntryResult) o;
+    return Objects.equals(transactionIdentifier, that.transactionIdentifier) &&
+        status == that.status &&
+        Objects.equals(message, that.message);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(transactionIdentifier, status, message);
+  }
+
+  @Override
+  public String toString() {
+    return "JournalEntryResult{" +
+        "transactionIdentifier='" + transactionIdentifier + '\'' +
+        ", status=" + status +
+        ", message='" + message + '\'' +
+        '}';
+  }
+}
@@ -26,6 +26,7 @@ public class LedgerPage {
   private List<Ledger> ledgers;
   private Integer totalPages;
   private Long totalElements;
+  private Boolean hasNextPage;
 
   public LedgerPage() {
     super();
@@ -54,4 +55,12 @@ public class LedgerPage {
   public void setTotalElements(Long totalElements) {
     this.totalElements = totalElements;
   }
+
+  public Boolean getHasNextPage() {
+    return hasNextPage;
+  }
+
+  public void setHasNextPage(Boolean hasNextPage) {
+    this.hasNextPage = hasNextPage;
+  }
 }
@@ -29,6 +29,7 @@ public class TransactionTypePage {
   private List<TransactionType> transactionTypes;
   private Integer totalPages;
   private Long totalElements;
+  private Boolean hasNextPage;
 
   public TransactionTypePage() {
     super();
@@ -65,4 +66,12 @@ public class TransactionTypePage {
 
     this.transactionTypes.add(transactionType);
   }
+
+  public Boolean getHasNextPage() {
+    return this.hasNextPage;
+  }
+
+  public void setHasNextPage(final Boolean hasNextPage) {
+    this.hasNextPage = hasNextPage;
+  }
 }
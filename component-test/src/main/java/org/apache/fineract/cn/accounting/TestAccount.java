@@ -23,30 +23,57 @@ import org.apache.fineract.cn.accounting.api.v1.client.AccountAlreadyExistsExcep
 import org.apache.fineract.cn.accounting.api.v1.client.AccountNotFoundException;
 import org.apache.fineract.cn.accounting.api.v1.client.AccountReferenceException;
 import org.apache.fineract.cn.accounting.api.v1.domain.Account;
+import org.apache.fineract.cn.accounting.api.v1.domain.AccountBalance;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountCommand;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountEntry;
+import org.apache.fineract.cn.accounting.api.v1.domain.AccountEntryPage;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountPage;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountType;
 import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
 import org.apache.fineract.cn.accounting.api.v1.domain.Ledger;
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountDailyBalanceRepository;
 import org.apache.fineract.cn.accounting.util.AccountGenerator;
 import org.apache.fineract.cn.accounting.util.JournalEntryGenerator;
 import org.apache.fineract.cn.accounting.util.LedgerGenerator;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Clock;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TimeZone;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.sql.DataSource;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.apache.fineract.cn.lang.DateConverter;
 import org.apache.fineract.cn.lang.DateRange;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 public class TestAccount extends AbstractAccountingTest {
+
+  @Autowired
+  private AccountDailyBalanceRepository accountDailyBalanceRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private DataSource dataSource;
+
   @Test
   public void shouldCreateAccount() throws Exception {
     final Ledger ledger = LedgerGenerator.createRandomLedger();
@@ -387,6 +414,333 @@ public class TestAccount extends AbstractAccountingTest {
     Assert.assertEquals(accountEntriesBackward, accountEntriesForward);
   }
 
+  @Test
+  public void shouldFetchAccountEntryPagesFollowingCursor() throws InterruptedException {
+    final Ledger ledger = LedgerGenerator.createRandomLedger();
+    this.testSubject.createLedger(ledger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, ledger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    // entries sharing a transaction date make the cursor rely on the id to continue within that date
+    final LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
+    final List<String> transactionDates = Arrays.asList(
+        DateConverter.toIsoString(now.minusMinutes(2L)),
+        DateConverter.toIsoString(now.minusMinutes(1L)),
+        DateConverter.toIsoString(now.minusMinutes(1L)),
+        DateConverter.toIsoString(now.minusMinutes(1L)),
+        DateConverter.toIsoString(now));
+    final List<String> journalEntryMessages = new ArrayList<>();
+    for (final String transactionDate : transactionDates) {
+      final JournalEntry journalEntry =
+          JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "10.00", creditorAccount, "10.00");
+      journalEntry.setTransactionDate(transactionDate);
+      this.testSubject.createJournalEntry(journalEntry);
+      this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+      this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+      journalEntryMessages.add(journalEntry.getMessage());
+    }
+
+    final String dateRange = new DateRange(now.toLocalDate().minusDays(1L), now.toLocalDate()).toString();
+    final List<AccountEntry> accountEntriesForward =
+        fetchAccountEntryPages(creditorAccount.getIdentifier(), dateRange, "ASC");
+    final List<AccountEntry> accountEntriesBackward =
+        fetchAccountEntryPages(creditorAccount.getIdentifier(), dateRange, "DESC");
+
+    Assert.assertEquals(transactionDates.size(), accountEntriesForward.size());
+    Assert.assertEquals(new HashSet<>(journalEntryMessages),
+        accountEntriesForward.stream().map(AccountEntry::getMessage).collect(Collectors.toSet()));
+    Assert.assertEquals(journalEntryMessages.get(0), accountEntriesForward.get(0).getMessage());
+    Assert.assertEquals(journalEntryMessages.get(transactionDates.size() - 1),
+        accountEntriesBackward.get(0).getMessage());
+
+    Collections.reverse(accountEntriesBackward);
+    Assert.assertEquals(accountEntriesForward, accountEntriesBackward);
+  }
+
+  private List<AccountEntry> fetchAccountEntryPages(final String accountIdentifier,
+                                                    final String dateRange,
+                                                    final String sortDirection) {
+    final List<AccountEntry> accountEntries = new ArrayList<>();
+    String cursor = null;
+    do {
+      final AccountEntryPage accountEntryPage =
+          this.testSubject.fetchAccountEntryPage(accountIdentifier, dateRange, null, cursor, 2, sortDirection);
+      Assert.assertTrue(accountEntryPage.getAccountEntries().size() <= 2);
+      accountEntries.addAll(accountEntryPage.getAccountEntries());
+      cursor = accountEntryPage.getNextCursor();
+    } while (cursor != null);
+    return accountEntries;
+  }
+
+  @Test
+  public void shouldFetchAccountEntrySliceWithoutTotals() throws InterruptedException {
+    final Ledger ledger = LedgerGenerator.createRandomLedger();
+    this.testSubject.createLedger(ledger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, ledger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    for (int i = 0; i < 3; i++) {
+      final JournalEntry journalEntry =
+          JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "10.00", creditorAccount, "10.00");
+      this.testSubject.createJournalEntry(journalEntry);
+      this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+      this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    }
+
+    final LocalDate today = LocalDate.now(Clock.systemUTC());
+    final String dateRange = new DateRange(today.minusDays(1L), today).toString();
+
+    final AccountEntryPage firstSlice = this.testSubject.fetchAccountEntries(creditorAccount.getIdentifier(),
+        dateRange, null, 0, 2, null, "ASC", Boolean.TRUE);
+    Assert.assertEquals(2, firstSlice.getAccountEntries().size());
+    Assert.assertEquals(Boolean.TRUE, firstSlice.getHasNextPage());
+    Assert.assertNull(firstSlice.getTotalElements());
+    Assert.assertNull(firstSlice.getTotalPages());
+
+    final AccountEntryPage lastSlice = this.testSubject.fetchAccountEntries(creditorAccount.getIdentifier(),
+        dateRange, null, 1, 2, null, "ASC", Boolean.TRUE);
+    Assert.assertEquals(1, lastSlice.getAccountEntries().size());
+    Assert.assertEquals(Boolean.FALSE, lastSlice.getHasNextPage());
+    Assert.assertNull(lastSlice.getTotalElements());
+    Assert.assertNull(lastSlice.getTotalPages());
+
+    final AccountEntryPage page = this.testSubject.fetchAccountEntries(creditorAccount.getIdentifier(),
+        dateRange, null, 0, 2, null, "ASC");
+    Assert.assertEquals(Long.valueOf(3L), page.getTotalElements());
+    Assert.assertEquals(Integer.valueOf(2), page.getTotalPages());
+  }
+
+  @Test
+  public void shouldFindAccountBalanceAsOf() throws InterruptedException {
+    final Ledger ledger = LedgerGenerator.createRandomLedger();
+    this.testSubject.createLedger(ledger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, ledger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    final JournalEntry journalEntry =
+        JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "50.00", creditorAccount, "50.00");
+    this.testSubject.createJournalEntry(journalEntry);
+    this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+
+    final LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
+    final String yesterday = DateConverter.toIsoString(now.minusDays(1L));
+    final String tomorrow = DateConverter.toIsoString(now.plusDays(1L));
+
+    final AccountBalance balanceBefore = this.testSubject.findAccountBalance(creditorAccount.getIdentifier(), yesterday);
+    Assert.assertEquals(0.00D, balanceBefore.getBalance(), 0.00001D);
+
+    final Account fetchedCreditorAccount = this.testSubject.findAccount(creditorAccount.getIdentifier());
+    final AccountBalance balanceAfter = this.testSubject.findAccountBalance(creditorAccount.getIdentifier(), tomorrow);
+    Assert.assertEquals(fetchedCreditorAccount.getBalance(), balanceAfter.getBalance(), 0.00001D);
+
+    final List<AccountBalance> accountBalances = this.testSubject.fetchAccountBalances(tomorrow,
+        Arrays.asList(debtorAccount.getIdentifier(), creditorAccount.getIdentifier(), "unknown"));
+    Assert.assertEquals(2, accountBalances.size());
+    final Optional<AccountBalance> creditorBalance = accountBalances.stream()
+        .filter(accountBalance -> accountBalance.getAccountIdentifier().equals(creditorAccount.getIdentifier()))
+        .findFirst();
+    Assert.assertTrue(creditorBalance.isPresent());
+    Assert.assertEquals(balanceAfter.getBalance(), creditorBalance.get().getBalance(), 0.00001D);
+  }
+
+  @Test
+  public void shouldFindAccountBalanceOfLatestBookingOnSameDate() throws InterruptedException {
+    final Ledger ledger = LedgerGenerator.createRandomLedger();
+    this.testSubject.createLedger(ledger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, ledger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    // entries sharing a transaction date are ordered by the sequence they were booked in
+    final String transactionDate = DateConverter.toIsoString(LocalDateTime.now(Clock.systemUTC()).minusHours(1L));
+    for (final String amount : Arrays.asList("50.00", "20.00", "30.00")) {
+      final JournalEntry journalEntry =
+          JournalEntryGenerator.createRandomJournalEntry(debtorAccount, amount, creditorAccount, amount);
+      journalEntry.setTransactionDate(transactionDate);
+      this.testSubject.createJournalEntry(journalEntry);
+      this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+      this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    }
+
+    final Account fetchedCreditorAccount = this.testSubject.findAccount(creditorAccount.getIdentifier());
+    final AccountBalance accountBalance = this.testSubject.findAccountBalance(creditorAccount.getIdentifier(),
+        DateConverter.toIsoString(LocalDateTime.now(Clock.systemUTC())));
+    Assert.assertEquals(fetchedCreditorAccount.getBalance(), accountBalance.getBalance(), 0.00001D);
+
+    final List<AccountBalance> accountBalances = this.testSubject.fetchAccountBalances(
+        DateConverter.toIsoString(LocalDateTime.now(Clock.systemUTC())),
+        Collections.singletonList(creditorAccount.getIdentifier()));
+    Assert.assertEquals(fetchedCreditorAccount.getBalance(), accountBalances.get(0).getBalance(), 0.00001D);
+  }
+
+  @Test
+  public void shouldFindOpeningBalanceBeforeFirstEntryAcrossUtcOffset() throws InterruptedException {
+    final Ledger ledger = LedgerGenerator.createRandomLedger();
+    this.testSubject.createLedger(ledger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, ledger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    // crediting an asset account lowers its balance
+    final Account creditorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    creditorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    final LocalDateTime transactionDate = LocalDateTime.now(Clock.systemUTC()).minusHours(1L);
+    final JournalEntry journalEntry =
+        JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "50.00", creditorAccount, "50.00");
+    journalEntry.setTransactionDate(DateConverter.toIsoString(transactionDate));
+    this.testSubject.createJournalEntry(journalEntry);
+    this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+
+    // the service shares the JVM, an offset of the default time zone must not move the entry across as of
+    final TimeZone defaultTimeZone = TimeZone.getDefault();
+    TimeZone.setDefault(TimeZone.getTimeZone("Asia/Kolkata"));
+    try {
+      final String before = DateConverter.toIsoString(transactionDate.minusMinutes(1L));
+      final String after = DateConverter.toIsoString(transactionDate.plusMinutes(1L));
+
+      Assert.assertEquals(100.00D,
+          this.testSubject.findAccountBalance(creditorAccount.getIdentifier(), before).getBalance(), 0.00001D);
+      Assert.assertEquals(50.00D,
+          this.testSubject.findAccountBalance(creditorAccount.getIdentifier(), after).getBalance(), 0.00001D);
+      Assert.assertEquals(100.00D, this.testSubject.fetchAccountBalances(before,
+          Collections.singletonList(creditorAccount.getIdentifier())).get(0).getBalance(), 0.00001D);
+      Assert.assertEquals(50.00D, this.testSubject.fetchAccountBalances(after,
+          Collections.singletonList(creditorAccount.getIdentifier())).get(0).getBalance(), 0.00001D);
+    } finally {
+      TimeZone.setDefault(defaultTimeZone);
+    }
+  }
+
+  @Test
+  public void shouldKeepDailyBalances() throws Exception {
+    final Ledger ledger = LedgerGenerator.createRandomLedger();
+    this.testSubject.createLedger(ledger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, ledger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    debtorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    final Account openedAccount = AccountGenerator.createRandomAccount(ledger.getIdentifier());
+    openedAccount.setBalance(70.00D);
+    this.testSubject.createAccount(openedAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, openedAccount.getIdentifier());
+
+    final String today = LocalDate.now(Clock.systemUTC()).toString();
+    Assert.assertEquals(Collections.singletonList(today + " 100 100 0 0"),
+        this.findDailyBalances(debtorAccount.getIdentifier()));
+    Assert.assertEquals(Collections.emptyList(), this.findDailyBalances(creditorAccount.getIdentifier()));
+
+    // the row of the day keeps its opening balance, takes the latest closing balance and adds up the turnovers
+    for (final String amount : Arrays.asList("30.00", "20.00")) {
+      final JournalEntry journalEntry =
+          JournalEntryGenerator.createRandomJournalEntry(debtorAccount, amount, creditorAccount, amount);
+      this.testSubject.createJournalEntry(journalEntry);
+      this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+      this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    }
+
+    final List<String> debtorDailyBalances = this.findDailyBalances(debtorAccount.getIdentifier());
+    final List<String> creditorDailyBalances = this.findDailyBalances(creditorAccount.getIdentifier());
+    final List<String> openedDailyBalances = this.findDailyBalances(openedAccount.getIdentifier());
+    Assert.assertEquals(Collections.singletonList(today + " 100 150 50 0"), debtorDailyBalances);
+    Assert.assertEquals(Collections.singletonList(today + " 0 -50 0 50"), creditorDailyBalances);
+    Assert.assertEquals(Collections.singletonList(today + " 70 70 0 0"), openedDailyBalances);
+
+    // rebuilding from the account entries and opening balances yields the rows kept while booking
+    try (final AutoTenantContext ignored = new AutoTenantContext(tenantDataStoreContext.getTenantName())) {
+      final long fromAccountId = this.findAccountId(debtorAccount.getIdentifier());
+      final long toAccountId = this.findAccountId(openedAccount.getIdentifier());
+      final Integer rows = new TransactionTemplate(this.transactionManager).execute(status ->
+          this.accountDailyBalanceRepository.rebuild(fromAccountId, toAccountId));
+      Assert.assertEquals(Integer.valueOf(3), rows);
+    }
+
+    Assert.assertEquals(debtorDailyBalances, this.findDailyBalances(debtorAccount.getIdentifier()));
+    Assert.assertEquals(creditorDailyBalances, this.findDailyBalances(creditorAccount.getIdentifier()));
+    Assert.assertEquals(openedDailyBalances, this.findDailyBalances(openedAccount.getIdentifier()));
+  }
+
+  private long findAccountId(final String accountIdentifier) throws SQLException {
+    try (final AutoTenantContext ignored = new AutoTenantContext(tenantDataStoreContext.getTenantName());
+         final Connection connection = this.dataSource.getConnection();
+         final PreparedStatement statement = connection.prepareStatement(
+             "SELECT id FROM thoth_accounts WHERE identifier = ?")) {
+      statement.setString(1, accountIdentifier);
+      try (final ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return resultSet.getLong(1);
+      }
+    }
+  }
+
+  private List<String> findDailyBalances(final String accountIdentifier) throws SQLException {
+    try (final AutoTenantContext ignored = new AutoTenantContext(tenantDataStoreContext.getTenantName());
+         final Connection connection = this.dataSource.getConnection();
+         final PreparedStatement statement = connection.prepareStatement(
+             "SELECT d.balance_date, d.opening_balance, d.closing_balance, d.debit_turnover, d.credit_turnover " +
+                 "FROM thoth_account_daily_balances d JOIN thoth_accounts a ON a.id = d.account_id " +
+                 "WHERE a.identifier = ? ORDER BY d.balance_date")) {
+      statement.setString(1, accountIdentifier);
+      final List<String> dailyBalances = new ArrayList<>();
+      try (final ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          dailyBalances.add(resultSet.getDate(1).toLocalDate() + " " +
+              Stream.of(resultSet.getBigDecimal(2), resultSet.getBigDecimal(3), resultSet.getBigDecimal(4),
+                  resultSet.getBigDecimal(5))
+                  .map(value -> value.stripTrailingZeros().toPlainString())
+                  .collect(Collectors.joining(" ")));
+        }
+      }
+      return dailyBalances;
+    }
+  }
+
+  @Test(expected = AccountNotFoundException.class)
+  public void shouldNotFindAccountBalanceUnknownAccount() {
+    this.testSubject.findAccountBalance(RandomStringUtils.randomAlphanumeric(8),
+        DateConverter.toIsoString(LocalDateTime.now(Clock.systemUTC())));
+  }
+
   @Test
   public void shouldCloseAccount() throws Exception {
     final Ledger randomLedger = LedgerGenerator.createRandomLedger();
@@ -487,6 +841,35 @@ public class TestAccount extends AbstractAccountingTest {
     Assert.assertTrue(this.eventRecorder.wait(EventConstants.DELETE_ACCOUNT, randomAccount.getIdentifier()));
   }
 
+  @Test
+  public void shouldDeleteAccountWithOpeningBalance() throws Exception {
+    final Ledger randomLedger = LedgerGenerator.createRandomLedger();
+    this.testSubject.createLedger(randomLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, randomLedger.getIdentifier());
+
+    final Account randomAccount = AccountGenerator.createRandomAccount(randomLedger.getIdentifier());
+    randomAccount.setBalance(100.00D);
+    this.testSubject.createAccount(randomAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, randomAccount.getIdentifier());
+    Assert.assertEquals(1, this.findDailyBalances(randomAccount.getIdentifier()).size());
+
+    final AccountCommand accountCommand = new AccountCommand();
+    accountCommand.setAction(AccountCommand.Action.CLOSE.name());
+    accountCommand.setComment("close this!");
+    this.testSubject.accountCommand(randomAccount.getIdentifier(), accountCommand);
+    this.eventRecorder.wait(EventConstants.CLOSE_ACCOUNT, randomAccount.getIdentifier());
+
+    // the daily balance row of the opening balance must not block the delete
+    this.testSubject.deleteAccount(randomAccount.getIdentifier());
+    Assert.assertTrue(this.eventRecorder.wait(EventConstants.DELETE_ACCOUNT, randomAccount.getIdentifier()));
+
+    try {
+      this.testSubject.findAccount(randomAccount.getIdentifier());
+      Assert.fail();
+    } catch (final AccountNotFoundException ignored) {
+    }
+  }
+
   @Test
   public void shouldNotDeleteAccountStillOpen() throws Exception {
     final Ledger randomLedger = LedgerGenerator.createRandomLedger();
@@ -25,7 +25,13 @@ import org.apache.fineract.cn.accounting.api.v1.domain.Account;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountEntryPage;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountType;
 import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntryPage;
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntryResult;
 import org.apache.fineract.cn.accounting.api.v1.domain.Ledger;
+import org.apache.fineract.cn.accounting.service.internal.command.BookJournalEntriesCommand;
+import org.apache.fineract.cn.accounting.service.internal.command.handler.AccountCommandHandler;
+import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryEntity;
+import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryRepository;
 import org.apache.fineract.cn.accounting.util.AccountGenerator;
 import org.apache.fineract.cn.accounting.util.JournalEntryGenerator;
 import org.apache.fineract.cn.accounting.util.LedgerGenerator;
@@ -35,14 +41,33 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.apache.commons.lang.RandomStringUtils;
+import org.apache.fineract.cn.api.context.AutoUserContext;
+import org.apache.fineract.cn.lang.AutoTenantContext;
 import org.apache.fineract.cn.lang.DateConverter;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 
 public class TestJournalEntry extends AbstractAccountingTest {
 
+  @Autowired
+  private JournalEntryRepository journalEntryRepository;
+
+  @Autowired
+  private AccountCommandHandler accountCommandHandler;
+
   @Test
   public void shouldCreateJournalEntry() throws Exception {
     final Ledger assetLedger = LedgerGenerator.createRandomLedger();
@@ -88,6 +113,60 @@ public class TestJournalEntry extends AbstractAccountingTest {
     Assert.assertEquals(150.0d, modifiedCreditorAccount.getBalance(), 0.0D);
   }
 
+  @Test
+  public void shouldCreateJournalEntries() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createRandomLedger();
+    assetLedger.setType(AccountType.ASSET.name());
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(assetLedger.getIdentifier());
+    debtorAccount.setType(AccountType.ASSET.name());
+    debtorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
+    liabilityLedger.setType(AccountType.LIABILITY.name());
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+    creditorAccount.setType(AccountType.LIABILITY.name());
+    creditorAccount.setBalance(100.00D);
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    final JournalEntry journalEntryOne = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "50.00",
+        creditorAccount, "50.00");
+    final JournalEntry journalEntryTwo = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "25.00",
+        creditorAccount, "25.00");
+    final JournalEntry unbalancedJournalEntry = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "25.00",
+        creditorAccount, "20.00");
+
+    final List<JournalEntryResult> results = this.testSubject.createJournalEntries(
+        Arrays.asList(journalEntryOne, journalEntryTwo, unbalancedJournalEntry, journalEntryOne));
+    Assert.assertEquals(4, results.size());
+    Assert.assertEquals(JournalEntryResult.Status.ACCEPTED.name(), results.get(0).getStatus());
+    Assert.assertEquals(JournalEntryResult.Status.ACCEPTED.name(), results.get(1).getStatus());
+    Assert.assertEquals(JournalEntryResult.Status.INVALID.name(), results.get(2).getStatus());
+    Assert.assertEquals(JournalEntryResult.Status.DUPLICATE.name(), results.get(3).getStatus());
+
+    final List<String> acceptedTransactionIdentifiers =
+        Arrays.asList(journalEntryOne.getTransactionIdentifier(), journalEntryTwo.getTransactionIdentifier());
+    this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRIES, acceptedTransactionIdentifiers);
+    this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRIES, acceptedTransactionIdentifiers);
+
+    final JournalEntry foundJournalEntry = this.testSubject.findJournalEntry(journalEntryTwo.getTransactionIdentifier());
+    Assert.assertEquals(JournalEntry.State.PROCESSED.name(), foundJournalEntry.getState());
+
+    final Account modifiedDebtorAccount = this.testSubject.findAccount(debtorAccount.getIdentifier());
+    Assert.assertEquals(175.0D, modifiedDebtorAccount.getBalance(), 0.0D);
+
+    final Account modifiedCreditorAccount = this.testSubject.findAccount(creditorAccount.getIdentifier());
+    Assert.assertEquals(175.0D, modifiedCreditorAccount.getBalance(), 0.0D);
+  }
+
   @Test
   public void shouldFetchJournalEntriesWithDateRange() throws Exception{
     final Ledger assetLedger = LedgerGenerator.createRandomLedger();
@@ -308,6 +387,158 @@ public class TestJournalEntry extends AbstractAccountingTest {
     checkAccountEntries(debtorAccount, creditorAccount, journalEntryOne, journalEntryTwo, dateRange);
   }
 
+  @Test
+  public void shouldFetchJournalEntryPagesFollowingCursor() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createRandomLedger();
+    assetLedger.setType(AccountType.ASSET.name());
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(assetLedger.getIdentifier());
+    debtorAccount.setType(AccountType.ASSET.name());
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
+    liabilityLedger.setType(AccountType.LIABILITY.name());
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+    creditorAccount.setType(AccountType.LIABILITY.name());
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    // spread over several date buckets, with more than one entry in some of them
+    final List<String> transactionIdentifiers = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      final JournalEntry journalEntry = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "10.00",
+          creditorAccount, "10.00");
+      final OffsetDateTime transactionDate = OffsetDateTime.of(1979, 3, 10 + i / 2, 1 + i, 0, 0, 0, ZoneOffset.UTC);
+      journalEntry.setTransactionDate(transactionDate.format(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+      this.testSubject.createJournalEntry(journalEntry);
+      this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+      transactionIdentifiers.add(journalEntry.getTransactionIdentifier());
+    }
+
+    final String dateRange = MessageFormat.format("{0}..{1}",
+        DateConverter.toIsoString(LocalDate.of(1979, 3, 10)),
+        DateConverter.toIsoString(LocalDate.of(1979, 3, 12)));
+
+    final List<JournalEntry> pagedJournalEntries = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      final JournalEntryPage journalEntryPage = this.testSubject.fetchJournalEntryPage(dateRange,
+          debtorAccount.getIdentifier(), null, cursor, 2);
+      cursor = journalEntryPage.getNextCursor();
+      // pages of an account follow its index, so only the last page may be short
+      if (cursor != null) {
+        Assert.assertEquals(2, journalEntryPage.getJournalEntries().size());
+      } else {
+        Assert.assertTrue(journalEntryPage.getJournalEntries().size() <= 2);
+      }
+      pagedJournalEntries.addAll(journalEntryPage.getJournalEntries());
+      pages++;
+      Assert.assertTrue("Cursor must not loop.", pages <= 10);
+    } while (cursor != null);
+
+    // every entry is returned exactly once, in transaction date order
+    final List<String> pagedTransactionIdentifiers =
+        pagedJournalEntries.stream().map(JournalEntry::getTransactionIdentifier).collect(Collectors.toList());
+    Assert.assertEquals(transactionIdentifiers.size(), pagedTransactionIdentifiers.size());
+    Assert.assertEquals(new HashSet<>(transactionIdentifiers), new HashSet<>(pagedTransactionIdentifiers));
+    for (int i = 1; i < pagedJournalEntries.size(); i++) {
+      Assert.assertFalse(DateConverter.toLocalDate(
+          DateConverter.fromIsoString(pagedJournalEntries.get(i).getTransactionDate())).isBefore(
+          DateConverter.toLocalDate(DateConverter.fromIsoString(pagedJournalEntries.get(i - 1).getTransactionDate()))));
+    }
+
+    final List<String> streamedTransactionIdentifiers = this.testSubject
+        .streamJournalEntries(dateRange, debtorAccount.getIdentifier(), null)
+        .map(JournalEntry::getTransactionIdentifier)
+        .collect(Collectors.toList());
+    Assert.assertEquals(pagedTransactionIdentifiers, streamedTransactionIdentifiers);
+  }
+
+  @Test(expected = JournalEntryValidationException.class)
+  public void shouldNotFetchJournalEntryPageInvalidCursor() throws Exception {
+    final String dateRange = MessageFormat.format("{0}..{1}",
+        DateConverter.toIsoString(LocalDate.of(1979, 3, 10)),
+        DateConverter.toIsoString(LocalDate.of(1979, 3, 12)));
+    this.testSubject.fetchJournalEntryPage(dateRange, null, null, "not-a-cursor", 2);
+  }
+
+  @Test
+  public void shouldNotBookReplayedJournalEntryTwice() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createRandomLedger();
+    assetLedger.setType(AccountType.ASSET.name());
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Account debtorAccount = AccountGenerator.createRandomAccount(assetLedger.getIdentifier());
+    debtorAccount.setType(AccountType.ASSET.name());
+    this.testSubject.createAccount(debtorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, debtorAccount.getIdentifier());
+
+    final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
+    liabilityLedger.setType(AccountType.LIABILITY.name());
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account creditorAccount = AccountGenerator.createRandomAccount(liabilityLedger.getIdentifier());
+    creditorAccount.setType(AccountType.LIABILITY.name());
+    this.testSubject.createAccount(creditorAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, creditorAccount.getIdentifier());
+
+    final JournalEntry journalEntry = JournalEntryGenerator.createRandomJournalEntry(debtorAccount, "50.00",
+        creditorAccount, "50.00");
+    this.testSubject.createJournalEntry(journalEntry);
+    this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+
+    // a replay, e.g. by a second node recovering the entry, sees it still pending; first one after the other, then
+    // two at once, where the second waits for the applied posting recorded by the first
+    this.replayBooking(journalEntry.getTransactionIdentifier());
+    final ExecutorService replayers = Executors.newFixedThreadPool(2);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<?>> replays = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        replays.add(replayers.submit(() -> {
+          try (final AutoUserContext ignored =
+                   this.tenantApplicationSecurityEnvironment.createAutoUserContext(TEST_USER)) {
+            start.await();
+            this.replayBooking(journalEntry.getTransactionIdentifier());
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (final Future<?> replay : replays) {
+        replay.get(30L, TimeUnit.SECONDS);
+      }
+    } finally {
+      replayers.shutdownNow();
+    }
+
+    Assert.assertEquals(50.00D, this.testSubject.findAccount(debtorAccount.getIdentifier()).getBalance(), 0.00001D);
+    Assert.assertEquals(50.00D, this.testSubject.findAccount(creditorAccount.getIdentifier()).getBalance(), 0.00001D);
+    final AccountEntryPage creditorAccountEntries = this.testSubject.fetchAccountEntries(
+        creditorAccount.getIdentifier(), null, null, null, null, null, null);
+    Assert.assertEquals(Long.valueOf(1L), creditorAccountEntries.getTotalElements());
+  }
+
+  private void replayBooking(final String transactionIdentifier) {
+    try (final AutoTenantContext ignored = new AutoTenantContext(tenantDataStoreContext.getTenantName())) {
+      final JournalEntryEntity journalEntryEntity =
+          this.journalEntryRepository.findJournalEntry(transactionIdentifier).orElseThrow(IllegalStateException::new);
+      journalEntryEntity.setState(JournalEntry.State.PENDING.name());
+      this.accountCommandHandler.bookJournalEntries(
+          new BookJournalEntriesCommand(Collections.singletonList(journalEntryEntity)));
+    }
+  }
+
   @Test(expected = JournalEntryValidationException.class)
   public void shouldNotCreateJournalEntryMissingDebtors() throws Exception {
     final Ledger liabilityLedger = LedgerGenerator.createRandomLedger();
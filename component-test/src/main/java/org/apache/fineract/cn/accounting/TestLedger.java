@@ -24,20 +24,37 @@ import org.apache.fineract.cn.accounting.api.v1.client.LedgerNotFoundException;
 import org.apache.fineract.cn.accounting.api.v1.client.LedgerReferenceExistsException;
 import org.apache.fineract.cn.accounting.api.v1.domain.Account;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountType;
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
 import org.apache.fineract.cn.accounting.api.v1.domain.Ledger;
 import org.apache.fineract.cn.accounting.api.v1.domain.LedgerPage;
+import org.apache.fineract.cn.accounting.service.internal.scheduler.LedgerTotalCompactor;
 import org.apache.fineract.cn.accounting.util.AccountGenerator;
+import org.apache.fineract.cn.accounting.util.JournalEntryGenerator;
 import org.apache.fineract.cn.accounting.util.LedgerGenerator;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.fineract.cn.lang.AutoTenantContext;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.sql.DataSource;
 
 public class TestLedger extends AbstractAccountingTest {
+
+  @Autowired
+  private LedgerTotalCompactor ledgerTotalCompactor;
+
+  @Autowired
+  private DataSource dataSource;
+
   @Test
   public void shouldCreateLedger() throws Exception {
     final Ledger ledger = LedgerGenerator.createRandomLedger();
@@ -360,4 +377,63 @@ public class TestLedger extends AbstractAccountingTest {
 
     Assert.assertEquals(createdAssetAccounts, foundAccounts);
   }
+
+  @Test
+  public void shouldFoldShardedTotalValue() throws Exception {
+    final Ledger assetLedger = LedgerGenerator.createLedger(RandomStringUtils.randomAlphanumeric(8), AccountType.ASSET);
+    this.testSubject.createLedger(assetLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, assetLedger.getIdentifier());
+
+    final Ledger liabilityLedger =
+        LedgerGenerator.createLedger(RandomStringUtils.randomAlphanumeric(8), AccountType.LIABILITY);
+    this.testSubject.createLedger(liabilityLedger);
+    this.eventRecorder.wait(EventConstants.POST_LEDGER, liabilityLedger.getIdentifier());
+
+    final Account assetAccount = AccountGenerator.createAccount(
+        assetLedger.getIdentifier(), RandomStringUtils.randomAlphanumeric(32), AccountType.ASSET);
+    this.testSubject.createAccount(assetAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, assetAccount.getIdentifier());
+
+    final Account liabilityAccount = AccountGenerator.createAccount(
+        liabilityLedger.getIdentifier(), RandomStringUtils.randomAlphanumeric(32), AccountType.LIABILITY);
+    this.testSubject.createAccount(liabilityAccount);
+    this.eventRecorder.wait(EventConstants.POST_ACCOUNT, liabilityAccount.getIdentifier());
+
+    for (int i = 0; i < 3; i++) {
+      final JournalEntry journalEntry =
+          JournalEntryGenerator.createRandomJournalEntry(assetAccount, "50.00", liabilityAccount, "50.00");
+      this.testSubject.createJournalEntry(journalEntry);
+      this.eventRecorder.wait(EventConstants.POST_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+      this.eventRecorder.wait(EventConstants.RELEASE_JOURNAL_ENTRY, journalEntry.getTransactionIdentifier());
+    }
+
+    // the total is read through the sum of the shard rows as long as they are not folded
+    Assert.assertEquals(0, BigDecimal.valueOf(150L).compareTo(
+        this.testSubject.findLedger(assetLedger.getIdentifier()).getTotalValue()));
+    Assert.assertEquals(0, BigDecimal.valueOf(150L).compareTo(
+        this.testSubject.findLedger(liabilityLedger.getIdentifier()).getTotalValue()));
+
+    this.ledgerTotalCompactor.compact();
+
+    Assert.assertEquals(0L, this.countTotalValueShards(assetLedger.getIdentifier()));
+    Assert.assertEquals(0L, this.countTotalValueShards(liabilityLedger.getIdentifier()));
+    Assert.assertEquals(0, BigDecimal.valueOf(150L).compareTo(
+        this.testSubject.findLedger(assetLedger.getIdentifier()).getTotalValue()));
+    Assert.assertEquals(0, BigDecimal.valueOf(150L).compareTo(
+        this.testSubject.findLedger(liabilityLedger.getIdentifier()).getTotalValue()));
+  }
+
+  private long countTotalValueShards(final String ledgerIdentifier) throws Exception {
+    try (final AutoTenantContext ignored = new AutoTenantContext(tenantDataStoreContext.getTenantName());
+         final Connection connection = this.dataSource.getConnection();
+         final PreparedStatement statement = connection.prepareStatement(
+             "SELECT count(*) FROM thoth_ledger_total_shards s JOIN thoth_ledgers l ON l.id = s.ledger_id " +
+                 "WHERE l.identifier = ?")) {
+      statement.setString(1, ledgerIdentifier);
+      try (final ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return resultSet.getLong(1);
+      }
+    }
+  }
 }
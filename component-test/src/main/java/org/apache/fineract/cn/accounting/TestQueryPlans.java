@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting;
+
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountEntryRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountRepository;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.spi.ParameterTranslations;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Asserts that the lookups along the foreign keys and the account entry lookups are served by the index created for
+ * them. The plans are taken for the SQL Hibernate generates from the repository queries, annotated queries are read
+ * from their annotation, derived queries are spelled out in JPQL. Sequential scans are disabled for the query plan,
+ * otherwise the planner would prefer them on the small test tables.
+ */
+public class TestQueryPlans extends AbstractAccountingTest {
+
+  private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):(\\w+)");
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  public TestQueryPlans() {
+    super();
+  }
+
+  @Test
+  public void shouldFindAccountsOfLedgerByIndex() throws Exception {
+    // AccountRepository.findByLedger
+    this.assertIndexScan("thoth_accounts_ledger_idx",
+        "SELECT a FROM AccountEntity a WHERE a.ledger = :ledger",
+        Collections.singletonMap("ledger", 1L));
+  }
+
+  @Test
+  public void shouldFindSubLedgersByIndex() throws Exception {
+    // LedgerRepository.findByParentLedgerOrderByIdentifier
+    this.assertIndexScan("thoth_ledgers_parent_ledger_idx",
+        "SELECT l FROM LedgerEntity l WHERE l.parentLedger = :parentLedger ORDER BY l.identifier ASC",
+        Collections.singletonMap("parentLedger", 1L));
+  }
+
+  @Test
+  public void shouldFindAccountEntriesOfAccountByIndex() throws Exception {
+    this.assertIndexScan("thoth_account_entries_account_date_idx",
+        query(AccountEntryRepository.class, "existsByAccount"),
+        Collections.singletonMap("accountEntity", 1L));
+  }
+
+  @Test
+  public void shouldFindReferencingAccountsByIndex() throws Exception {
+    this.assertIndexScan("thoth_accounts_reference_account_idx",
+        query(AccountRepository.class, "existsByReference"),
+        Collections.singletonMap("accountEntity", 1L));
+  }
+
+  @Test
+  public void shouldFindCommandsOfAccountByIndex() throws Exception {
+    // CommandRepository.findByAccount
+    this.assertIndexScan("thoth_commands_account_idx",
+        "SELECT c FROM CommandEntity c WHERE c.account = :account",
+        Collections.singletonMap("account", 1L));
+  }
+
+  @Test
+  public void shouldFindAccountEntriesAfterCursorByIndex() throws Exception {
+    final Map<String, Object> parameters = this.accountEntryRangeParameters();
+    parameters.put("afterDate", Timestamp.valueOf(LocalDateTime.of(2017, 6, 1, 12, 0)));
+    parameters.put("afterId", 1L);
+    this.assertIndexScan("thoth_account_entries_account_date_idx",
+        query(AccountEntryRepository.class, "findAfter"), parameters);
+  }
+
+  @Test
+  public void shouldFindAccountEntriesBeforeCursorByIndex() throws Exception {
+    final Map<String, Object> parameters = this.accountEntryRangeParameters();
+    parameters.put("beforeDate", Timestamp.valueOf(LocalDateTime.of(2017, 6, 1, 12, 0)));
+    parameters.put("beforeId", 1L);
+    this.assertIndexScan("thoth_account_entries_account_date_idx",
+        query(AccountEntryRepository.class, "findBefore"), parameters);
+  }
+
+  @Test
+  public void shouldFindLatestAccountEntryByIndex() throws Exception {
+    final Map<String, Object> parameters = new HashMap<>();
+    parameters.put("accountEntity", 1L);
+    parameters.put("asOf", Timestamp.valueOf(LocalDateTime.of(2017, 6, 1, 12, 0)));
+    this.assertIndexScan("thoth_account_entries_account_date_idx",
+        query(AccountEntryRepository.class, "findLatest"), parameters);
+  }
+
+  @Test
+  public void shouldFindBalancesAsOfByIndex() throws Exception {
+    final Map<String, Object> parameters = new HashMap<>();
+    parameters.put("identifiers", Arrays.asList("7010", "7020"));
+    parameters.put("asOf", Timestamp.valueOf(LocalDateTime.of(2017, 6, 1, 12, 0)));
+    this.assertNativeIndexScan("thoth_account_entries_account_date_idx",
+        query(AccountEntryRepository.class, "findBalancesAsOf"), parameters);
+  }
+
+  private Map<String, Object> accountEntryRangeParameters() {
+    final Map<String, Object> parameters = new HashMap<>();
+    parameters.put("accountEntity", 1L);
+    parameters.put("dateFrom", Timestamp.valueOf(LocalDateTime.of(2017, 1, 1, 0, 0)));
+    parameters.put("dateTo", Timestamp.valueOf(LocalDateTime.of(2017, 12, 31, 23, 59)));
+    parameters.put("message", "message");
+    return parameters;
+  }
+
+  private static String query(final Class<?> repository, final String methodName) {
+    for (final Method method : repository.getMethods()) {
+      final Query query = method.getAnnotation(Query.class);
+      if (method.getName().equals(methodName) && query != null) {
+        return query.value();
+      }
+    }
+    throw new IllegalArgumentException("No query annotated on " + repository.getSimpleName() + "." + methodName);
+  }
+
+  /**
+   * Translates the JPQL query to the SQL Hibernate issues for it and binds the named parameters at the positions
+   * Hibernate expanded them to.
+   */
+  private void assertIndexScan(final String indexName,
+                               final String jpqlQuery,
+                               final Map<String, Object> parameters) throws SQLException {
+    final SessionFactoryImplementor sessionFactory =
+        this.entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    final QueryTranslator queryTranslator = sessionFactory.getQueryPlanCache()
+        .getHQLQueryPlan(jpqlQuery, false, Collections.emptyMap()).getTranslators()[0];
+
+    final ParameterTranslations parameterTranslations = queryTranslator.getParameterTranslations();
+    final Map<Integer, Object> positionalParameters = new HashMap<>();
+    for (final Object parameterName : parameterTranslations.getNamedParameterNames()) {
+      for (final int location : parameterTranslations.getNamedParameterSqlLocations((String) parameterName)) {
+        positionalParameters.put(location + 1, parameters.get(parameterName));
+      }
+    }
+
+    this.assertPlanUsesIndex(indexName, queryTranslator.getSQLString(), positionalParameters);
+  }
+
+  /**
+   * Replaces the named parameters of the native query by positional ones, collections are expanded the way Hibernate
+   * expands them.
+   */
+  private void assertNativeIndexScan(final String indexName,
+                                     final String nativeQuery,
+                                     final Map<String, Object> parameters) throws SQLException {
+    final Map<Integer, Object> positionalParameters = new HashMap<>();
+    final StringBuffer sqlQuery = new StringBuffer();
+    final Matcher matcher = NAMED_PARAMETER.matcher(nativeQuery);
+    while (matcher.find()) {
+      final Object value = parameters.get(matcher.group(1));
+      final List<String> placeholders = new ArrayList<>();
+      for (final Object element : value instanceof Collection ? (Collection<?>) value : Collections.singleton(value)) {
+        positionalParameters.put(positionalParameters.size() + 1, element);
+        placeholders.add("?");
+      }
+      matcher.appendReplacement(sqlQuery, value instanceof Collection
+          ? "(" + String.join(", ", placeholders) + ")"
+          : "?");
+    }
+    matcher.appendTail(sqlQuery);
+
+    this.assertPlanUsesIndex(indexName, sqlQuery.toString(), positionalParameters);
+  }
+
+  private void assertPlanUsesIndex(final String indexName,
+                                   final String sqlQuery,
+                                   final Map<Integer, Object> positionalParameters) throws SQLException {
+    try (final AutoTenantContext ignored = new AutoTenantContext(tenantDataStoreContext.getTenantName());
+         final Connection connection = this.dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (final Statement statement = connection.createStatement()) {
+        statement.execute("SET LOCAL enable_seqscan = off");
+        final StringBuilder plan = new StringBuilder();
+        try (final PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sqlQuery)) {
+          for (final Map.Entry<Integer, Object> positionalParameter : positionalParameters.entrySet()) {
+            explain.setObject(positionalParameter.getKey(), positionalParameter.getValue());
+          }
+          try (final ResultSet resultSet = explain.executeQuery()) {
+            while (resultSet.next()) {
+              plan.append(resultSet.getString(1)).append('\n');
+            }
+          }
+        }
+        Assert.assertFalse(plan.toString(), plan.toString().contains("Seq Scan"));
+        Assert.assertTrue(plan.toString(), plan.toString().contains(indexName));
+      } finally {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+    }
+  }
+}
@@ -33,6 +33,7 @@ import org.junit.runners.Suite;
     TestIncomeStatement.class,
     TestJournalEntry.class,
     TestLedger.class,
+    TestQueryPlans.class,
     TestTransactionType.class,
     TestTrialBalance.class,
 })
@@ -18,6 +18,8 @@
  */
 package org.apache.fineract.cn.accounting.service;
 
+import org.apache.fineract.cn.accounting.service.internal.tenant.ActiveTenants;
+import org.apache.fineract.cn.accounting.service.internal.tenant.ActiveTenantsInterceptor;
 import org.apache.fineract.cn.anubis.config.EnableAnubis;
 import org.apache.fineract.cn.async.config.EnableAsync;
 import org.apache.fineract.cn.cassandra.config.EnableCassandra;
@@ -33,12 +35,15 @@ import org.springframework.cloud.netflix.feign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 @Configuration
 @EnableAutoConfiguration
 @EnableAsync
+@EnableScheduling
 @EnableTenantContext
 @EnablePostgreSQL
 @EnableCassandra
@@ -65,6 +70,16 @@ public class AccountingServiceConfiguration extends WebMvcConfigurerAdapter {
     return LoggerFactory.getLogger(ServiceConstants.LOGGER_NAME);
   }
 
+  @Bean
+  public ActiveTenants activeTenants() {
+    return new ActiveTenants();
+  }
+
+  @Override
+  public void addInterceptors(final InterceptorRegistry registry) {
+    registry.addInterceptor(new ActiveTenantsInterceptor(this.activeTenants()));
+  }
+
   @Override
   public void configurePathMatch(final PathMatchConfigurer configurer) {
     configurer.setUseSuffixPatternMatch(Boolean.FALSE);
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.command;
+
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
+import java.util.List;
+
+public class CreateJournalEntriesCommand {
+
+  private final List<JournalEntry> journalEntries;
+
+  public CreateJournalEntriesCommand(final List<JournalEntry> journalEntries) {
+    this.journalEntries = journalEntries;
+  }
+
+  public List<JournalEntry> journalEntries() {
+    return this.journalEntries;
+  }
+
+  @Override
+  public String toString() {
+    return "CreateJournalEntriesCommand{" +
+            "journalEntries=" + journalEntries.size() +
+            '}';
+  }
+}
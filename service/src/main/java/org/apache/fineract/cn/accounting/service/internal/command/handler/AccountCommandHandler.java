@@ -25,30 +25,48 @@ import org.apache.fineract.cn.accounting.api.v1.domain.AccountEntry;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountType;
 import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
 import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import org.apache.fineract.cn.accounting.service.internal.command.BookJournalEntriesCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.BookJournalEntryCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.CloseAccountCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.CreateAccountCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.DeleteAccountCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.LockAccountCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.ModifyAccountCommand;
+import org.apache.fineract.cn.accounting.service.internal.command.ReleaseJournalEntriesCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.ReleaseJournalEntryCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.ReopenAccountCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.UnlockAccountCommand;
+import org.apache.fineract.cn.accounting.service.internal.posting.GroupCommitter;
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountDailyBalanceRepository;
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountEntryEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountEntryRepository;
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.AppliedPostingRepository;
 import org.apache.fineract.cn.accounting.service.internal.repository.CommandEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.CommandRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.CreditorType;
+import org.apache.fineract.cn.accounting.service.internal.repository.DebtorType;
 import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryRepository;
 import org.apache.fineract.cn.accounting.service.internal.repository.LedgerEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.LedgerRepository;
+import org.apache.fineract.cn.accounting.service.internal.service.AccountProjectionCache;
+import org.apache.fineract.cn.accounting.service.internal.util.Money;
 import java.math.BigDecimal;
 import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import org.apache.fineract.cn.api.util.UserContextHolder;
 import org.apache.fineract.cn.command.annotation.Aggregate;
@@ -60,8 +78,11 @@ import org.apache.fineract.cn.lang.ServiceException;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @SuppressWarnings("unused")
 @Aggregate
@@ -71,26 +92,46 @@ public class AccountCommandHandler {
   private final CommandGateway commandGateway;
   private final AccountRepository accountRepository;
   private final AccountEntryRepository accountEntryRepository;
+  private final AccountDailyBalanceRepository accountDailyBalanceRepository;
+  private final AppliedPostingRepository appliedPostingRepository;
   private final LedgerRepository ledgerRepository;
   private final JournalEntryRepository journalEntryRepository;
   private final CommandRepository commandRepository;
+  private final AccountProjectionCache accountProjectionCache;
+  private final Integer totalValueShards;
+  private final TransactionTemplate transactionTemplate;
+  private final GroupCommitter<JournalEntryEntity> bookingGroupCommitter;
 
   @Autowired
   public AccountCommandHandler(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                                final CommandGateway commandGateway,
                                final AccountRepository accountRepository,
                                final AccountEntryRepository accountEntryRepository,
+                               final AccountDailyBalanceRepository accountDailyBalanceRepository,
+                               final AppliedPostingRepository appliedPostingRepository,
                                final LedgerRepository ledgerRepository,
                                final JournalEntryRepository journalEntryRepository,
-                               final CommandRepository commandRepository) {
+                               final CommandRepository commandRepository,
+                               final AccountProjectionCache accountProjectionCache,
+                               final PlatformTransactionManager transactionManager,
+                               @Value("${accounting.ledger.totalValueShards:16}") final Integer totalValueShards,
+                               @Value("${accounting.posting.groupCommit.maxSize:64}") final Integer groupCommitMaxSize,
+                               @Value("${accounting.posting.groupCommit.maxLatency:5}") final Long groupCommitMaxLatency) {
     super();
     this.logger = logger;
     this.commandGateway = commandGateway;
     this.accountRepository = accountRepository;
     this.accountEntryRepository = accountEntryRepository;
+    this.accountDailyBalanceRepository = accountDailyBalanceRepository;
+    this.appliedPostingRepository = appliedPostingRepository;
     this.ledgerRepository = ledgerRepository;
     this.journalEntryRepository = journalEntryRepository;
     this.commandRepository = commandRepository;
+    this.accountProjectionCache = accountProjectionCache;
+    this.totalValueShards = totalValueShards;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.bookingGroupCommitter = new GroupCommitter<>(groupCommitMaxSize, groupCommitMaxLatency,
+        this::bookInTransaction, journalEntryEntity -> this.bookInTransaction(Collections.singletonList(journalEntryEntity)));
   }
 
   @Transactional
@@ -133,6 +174,7 @@ public class AccountCommandHandler {
     }
 
     accountEntity.setBalance(account.getBalance());
+    accountEntity.setOpeningBalance(account.getBalance());
     accountEntity.setState(Account.State.OPEN.name());
     accountEntity.setAlternativeAccountNumber(account.getAlternativeAccountNumber());
     accountEntity.setCreatedBy(UserContextHolder.checkedGetUser());
@@ -150,7 +192,13 @@ public class AccountCommandHandler {
 
     if (savedAccountEntity.getBalance() != null && savedAccountEntity.getBalance() != 0.00D) {
       this.adjustLedgerTotals(
-          savedAccountEntity.getLedger().getIdentifier(), BigDecimal.valueOf(savedAccountEntity.getBalance()));
+          savedAccountEntity.getLedger().getIdentifier(),
+          Money.toBigDecimal(Money.valueOf(savedAccountEntity.getBalance())));
+      // the opening balance is carried by a row of the creation day until the first posting
+      final BigDecimal openingBalance = Money.toBigDecimal(Money.valueOf(savedAccountEntity.getBalance()));
+      this.accountDailyBalanceRepository.upsert(savedAccountEntity.getId(),
+          savedAccountEntity.getCreatedOn().toLocalDate(), openingBalance, openingBalance, BigDecimal.ZERO,
+          BigDecimal.ZERO);
     }
 
     return account.getIdentifier();
@@ -207,6 +255,7 @@ public class AccountCommandHandler {
     accountEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
 
     this.accountRepository.save(accountEntity);
+    this.accountProjectionCache.evict(accountEntity.getIdentifier());
 
     if (referenceAccount != null) {
       referenceAccount.setLastModifiedBy(UserContextHolder.checkedGetUser());
@@ -234,6 +283,7 @@ public class AccountCommandHandler {
     accountEntity.setLastModifiedBy(modifyingUser);
     accountEntity.setLastModifiedOn(now);
     this.accountRepository.save(accountEntity);
+    this.accountProjectionCache.evict(identifier);
 
     final CommandEntity commandEntity = new CommandEntity();
     commandEntity.setType(AccountCommand.Action.CLOSE.name());
@@ -259,6 +309,7 @@ public class AccountCommandHandler {
     accountEntity.setLastModifiedBy(modifyingUser);
     accountEntity.setLastModifiedOn(now);
     this.accountRepository.save(accountEntity);
+    this.accountProjectionCache.evict(identifier);
 
     final CommandEntity commandEntity = new CommandEntity();
     commandEntity.setType(AccountCommand.Action.LOCK.name());
@@ -284,6 +335,7 @@ public class AccountCommandHandler {
     accountEntity.setLastModifiedBy(modifyingUser);
     accountEntity.setLastModifiedOn(now);
     this.accountRepository.save(accountEntity);
+    this.accountProjectionCache.evict(identifier);
 
     final CommandEntity commandEntity = new CommandEntity();
     commandEntity.setType(AccountCommand.Action.UNLOCK.name());
@@ -309,6 +361,7 @@ public class AccountCommandHandler {
     accountEntity.setLastModifiedBy(modifyingUser);
     accountEntity.setLastModifiedOn(now);
     this.accountRepository.save(accountEntity);
+    this.accountProjectionCache.evict(identifier);
 
     final CommandEntity commandEntity = new CommandEntity();
     commandEntity.setType(AccountCommand.Action.REOPEN.name());
@@ -321,7 +374,6 @@ public class AccountCommandHandler {
     return identifier;
   }
 
-  @Transactional
   @CommandHandler(logStart = CommandLogLevel.NONE, logFinish = CommandLogLevel.NONE)
   @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.RELEASE_JOURNAL_ENTRY)
   public String bookJournalEntry(final BookJournalEntryCommand bookJournalEntryCommand) {
@@ -333,72 +385,8 @@ public class AccountCommandHandler {
       if (!journalEntryEntity.getState().equals(JournalEntry.State.PENDING.name())) {
         return null;
       }
-      // process all debtors
-      journalEntryEntity.getDebtors()
-          .forEach(debtor -> {
-            final String accountNumber = debtor.getAccountNumber();
-            final AccountEntity accountEntity = this.accountRepository.findByIdentifier(accountNumber);
-            final AccountType accountType = AccountType.valueOf(accountEntity.getType());
-            final BigDecimal amount;
-            switch (accountType) {
-              case ASSET:
-              case EXPENSE:
-                accountEntity.setBalance(accountEntity.getBalance() + debtor.getAmount());
-                amount = BigDecimal.valueOf(debtor.getAmount());
-                break;
-              case LIABILITY:
-              case EQUITY:
-              case REVENUE:
-                accountEntity.setBalance(accountEntity.getBalance() - debtor.getAmount());
-                amount = BigDecimal.valueOf(debtor.getAmount()).negate();
-                break;
-              default:
-                amount = BigDecimal.ZERO;
-            }
-            final AccountEntity savedAccountEntity = this.accountRepository.save(accountEntity);
-            final AccountEntryEntity accountEntryEntity = new AccountEntryEntity();
-            accountEntryEntity.setType(AccountEntry.Type.DEBIT.name());
-            accountEntryEntity.setAccount(savedAccountEntity);
-            accountEntryEntity.setBalance(savedAccountEntity.getBalance());
-            accountEntryEntity.setAmount(debtor.getAmount());
-            accountEntryEntity.setMessage(journalEntryEntity.getMessage());
-            accountEntryEntity.setTransactionDate(journalEntryEntity.getTransactionDate());
-            this.accountEntryRepository.save(accountEntryEntity);
-            this.adjustLedgerTotals(savedAccountEntity.getLedger().getIdentifier(), amount);
-          });
-      // process all creditors
-      journalEntryEntity.getCreditors()
-          .forEach(creditor -> {
-            final String accountNumber = creditor.getAccountNumber();
-            final AccountEntity accountEntity = this.accountRepository.findByIdentifier(accountNumber);
-            final AccountType accountType = AccountType.valueOf(accountEntity.getType());
-            final BigDecimal amount;
-            switch (accountType) {
-              case ASSET:
-              case EXPENSE:
-                accountEntity.setBalance(accountEntity.getBalance() - creditor.getAmount());
-                amount = BigDecimal.valueOf(creditor.getAmount()).negate();
-                break;
-              case LIABILITY:
-              case EQUITY:
-              case REVENUE:
-                accountEntity.setBalance(accountEntity.getBalance() + creditor.getAmount());
-                amount = BigDecimal.valueOf(creditor.getAmount());
-                break;
-              default:
-                amount = BigDecimal.ZERO;
-            }
-            final AccountEntity savedAccountEntity = this.accountRepository.save(accountEntity);
-            final AccountEntryEntity accountEntryEntity = new AccountEntryEntity();
-            accountEntryEntity.setType(AccountEntry.Type.CREDIT.name());
-            accountEntryEntity.setAccount(savedAccountEntity);
-            accountEntryEntity.setBalance(savedAccountEntity.getBalance());
-            accountEntryEntity.setAmount(creditor.getAmount());
-            accountEntryEntity.setMessage(journalEntryEntity.getMessage());
-            accountEntryEntity.setTransactionDate(journalEntryEntity.getTransactionDate());
-            this.accountEntryRepository.save(accountEntryEntity);
-            this.adjustLedgerTotals(savedAccountEntity.getLedger().getIdentifier(), amount);
-          });
+      // returns once the transaction holding this entry, possibly shared with concurrent bookings, committed
+      this.bookingGroupCommitter.submit(journalEntryEntity);
       this.commandGateway.process(new ReleaseJournalEntryCommand(transactionIdentifier));
       return transactionIdentifier;
     } else {
@@ -406,6 +394,21 @@ public class AccountCommandHandler {
     }
   }
 
+  @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
+  @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.RELEASE_JOURNAL_ENTRIES)
+  public List<String> bookJournalEntries(final BookJournalEntriesCommand bookJournalEntriesCommand) {
+    final List<JournalEntryEntity> pendingJournalEntries = bookJournalEntriesCommand.journalEntries()
+        .stream()
+        .filter(journalEntryEntity -> journalEntryEntity.getState().equals(JournalEntry.State.PENDING.name()))
+        .collect(Collectors.toList());
+    this.bookInTransaction(pendingJournalEntries);
+    this.commandGateway.process(new ReleaseJournalEntriesCommand(pendingJournalEntries));
+    return pendingJournalEntries
+        .stream()
+        .map(JournalEntryEntity::getTransactionIdentifier)
+        .collect(Collectors.toList());
+  }
+
   @Transactional
   @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
   @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.DELETE_ACCOUNT)
@@ -415,19 +418,236 @@ public class AccountCommandHandler {
 
     final List<CommandEntity> commandEntities = this.commandRepository.findByAccount(accountEntity);
     this.commandRepository.delete(commandEntities);
+    this.accountDailyBalanceRepository.deleteByAccountId(accountEntity.getId());
 
     this.accountRepository.delete(accountEntity);
+    this.accountProjectionCache.evict(accountIdentifier);
     return accountIdentifier;
   }
 
   @Transactional
   public void adjustLedgerTotals(final String ledgerIdentifier, final BigDecimal amount) {
-    final LedgerEntity ledger = this.ledgerRepository.findByIdentifier(ledgerIdentifier);
-    final BigDecimal currentTotal = ledger.getTotalValue() != null ? ledger.getTotalValue() : BigDecimal.ZERO;
-    ledger.setTotalValue(currentTotal.add(amount));
-    final LedgerEntity savedLedger = this.ledgerRepository.save(ledger);
-    if (savedLedger.getParentLedger() != null) {
-      this.adjustLedgerTotals(savedLedger.getParentLedger().getIdentifier(), amount);
+    this.adjustLedgerTotals(Collections.singletonMap(ledgerIdentifier, amount));
+  }
+
+  @Transactional
+  public void adjustLedgerTotals(final Map<String, BigDecimal> ledgerTotalAdjustments) {
+    // roll the adjustments up the ledger hierarchy first, so every ledger touched is updated once no matter
+    // how many legs or sub ledgers contributed to it
+    final Map<Long, BigDecimal> adjustmentsByLedgerId = new HashMap<>();
+    ledgerTotalAdjustments.forEach((ledgerIdentifier, amount) -> {
+      if (amount.signum() == 0) {
+        return;
+      }
+      LedgerEntity ledger = this.ledgerRepository.findByIdentifier(ledgerIdentifier);
+      while (ledger != null) {
+        adjustmentsByLedgerId.merge(ledger.getId(), amount, BigDecimal::add);
+        ledger = ledger.getParentLedger();
+      }
+    });
+
+    if (this.totalValueShards > 0) {
+      // concurrent postings add to different shard rows instead of queuing up on the rows of the root
+      // ledgers; ledgers are visited in id order to keep lock acquisition consistent across transactions
+      final Integer shard = Math.floorMod(Long.hashCode(Thread.currentThread().getId()), this.totalValueShards);
+      new TreeMap<>(adjustmentsByLedgerId).forEach((ledgerId, amount) -> {
+        if (amount.signum() != 0) {
+          this.ledgerRepository.adjustTotalValueShard(ledgerId, shard, amount);
+        }
+      });
+      return;
+    }
+
+    if (adjustmentsByLedgerId.isEmpty()) {
+      return;
+    }
+    // the rows are locked in id order up front, so the updates below can't deadlock with other postings
+    this.ledgerRepository.lockByIdIn(adjustmentsByLedgerId.keySet());
+
+    // ledgers sharing the same adjustment, e.g. all ancestors of a single leaf ledger, are updated together
+    final Map<BigDecimal, List<Long>> ledgerIdsByAdjustment = new TreeMap<>();
+    adjustmentsByLedgerId.forEach((ledgerId, amount) -> {
+      if (amount.signum() != 0) {
+        ledgerIdsByAdjustment.computeIfAbsent(amount, key -> new ArrayList<>()).add(ledgerId);
+      }
+    });
+    ledgerIdsByAdjustment.forEach((amount, ledgerIds) -> this.ledgerRepository.adjustTotalValue(ledgerIds, amount));
+  }
+
+  private Set<String> accountNumbers(final List<JournalEntryEntity> journalEntryEntities) {
+    final Set<String> accountNumbers = new HashSet<>();
+    journalEntryEntities.forEach(journalEntryEntity -> {
+      journalEntryEntity.getDebtors().forEach(debtor -> accountNumbers.add(debtor.getAccountNumber()));
+      journalEntryEntity.getCreditors().forEach(creditor -> accountNumbers.add(creditor.getAccountNumber()));
+    });
+    return accountNumbers;
+  }
+
+  private Map<String, AccountEntity> lockAccounts(final Set<String> accountNumbers) {
+    // accounts are locked sorted by identifier, so concurrent postings always wait for each other in the
+    // same order instead of deadlocking
+    final Map<String, AccountEntity> accountEntities = new HashMap<>();
+    if (!accountNumbers.isEmpty()) {
+      this.accountRepository.lockByIdentifierIn(accountNumbers)
+          .forEach(accountEntity -> accountEntities.put(accountEntity.getIdentifier(), accountEntity));
+    }
+    return accountEntities;
+  }
+
+  private void bookInTransaction(final List<JournalEntryEntity> journalEntryEntities) {
+    // accounts are shared across all entries, so every account is loaded and saved once and the running
+    // balances of its entries follow the order of the given entries
+    this.transactionTemplate.execute(status -> {
+      final List<JournalEntryEntity> unappliedJournalEntries = this.recordAppliedPostings(journalEntryEntities);
+      if (unappliedJournalEntries.isEmpty()) {
+        return null;
+      }
+      final Set<String> accountNumbers = this.accountNumbers(unappliedJournalEntries);
+      final Map<String, AccountEntity> accountEntities = this.lockAccounts(accountNumbers);
+      // ledger identifiers are taken from the account projection, so no ledger needs to be loaded per account
+      final Map<String, String> ledgerIdentifiers = new HashMap<>();
+      if (!accountNumbers.isEmpty()) {
+        this.accountRepository.findProjectionsByIdentifierIn(accountNumbers).forEach(accountProjection ->
+            ledgerIdentifiers.put(accountProjection.getIdentifier(), accountProjection.getLedgerIdentifier()));
+      }
+      final List<AccountEntryEntity> accountEntryEntities = new ArrayList<>();
+      final Map<String, long[]> ledgerTotalAdjustments = new HashMap<>();
+      final Map<String, long[]> dailyBalances = new TreeMap<>();
+      unappliedJournalEntries.forEach(journalEntryEntity ->
+          this.book(journalEntryEntity, accountEntities, ledgerIdentifiers, accountEntryEntities,
+              ledgerTotalAdjustments, dailyBalances));
+      this.save(accountEntities, accountEntryEntities, ledgerTotalAdjustments, dailyBalances);
+      return null;
+    });
+  }
+
+  private List<JournalEntryEntity> recordAppliedPostings(final List<JournalEntryEntity> journalEntryEntities) {
+    // the state in Cassandra is released separately, so the applied posting recorded in the same transaction as
+    // the balances decides whether an entry is booked; identifiers are recorded sorted, so concurrent groups
+    // sharing entries wait for each other in the same order
+    final List<JournalEntryEntity> sortedJournalEntries = new ArrayList<>(journalEntryEntities);
+    sortedJournalEntries.sort(Comparator.comparing(JournalEntryEntity::getTransactionIdentifier));
+    final Set<String> unappliedTransactionIdentifiers = new HashSet<>();
+    sortedJournalEntries.forEach(journalEntryEntity -> {
+      final String transactionIdentifier = journalEntryEntity.getTransactionIdentifier();
+      if (this.appliedPostingRepository.insertIfAbsent(transactionIdentifier) > 0) {
+        unappliedTransactionIdentifiers.add(transactionIdentifier);
+      } else {
+        this.logger.info("Journal entry {} has been booked before, skipping.", transactionIdentifier);
+      }
+    });
+    // booking keeps the given order, the running balances depend on it
+    return journalEntryEntities
+        .stream()
+        .filter(journalEntryEntity -> unappliedTransactionIdentifiers.remove(journalEntryEntity.getTransactionIdentifier()))
+        .collect(Collectors.toList());
+  }
+
+  private void book(final JournalEntryEntity journalEntryEntity,
+                    final Map<String, AccountEntity> accountEntities,
+                    final Map<String, String> ledgerIdentifiers,
+                    final List<AccountEntryEntity> accountEntryEntities,
+                    final Map<String, long[]> ledgerTotalAdjustments,
+                    final Map<String, long[]> dailyBalances) {
+    // amounts and balances are calculated in minor units and only converted at the entity boundary
+    // process all debtors
+    for (final DebtorType debtor : journalEntryEntity.getDebtors()) {
+      final AccountEntity accountEntity =
+          accountEntities.computeIfAbsent(debtor.getAccountNumber(), this.accountRepository::findByIdentifier);
+      final long amount;
+      switch (AccountType.valueOf(accountEntity.getType())) {
+        case ASSET:
+        case EXPENSE:
+          amount = Money.valueOf(debtor.getAmount());
+          break;
+        case LIABILITY:
+        case EQUITY:
+        case REVENUE:
+          amount = -Money.valueOf(debtor.getAmount());
+          break;
+        default:
+          amount = 0L;
+      }
+      this.addAccountEntry(journalEntryEntity, accountEntity, AccountEntry.Type.DEBIT, debtor.getAmount(), amount,
+          ledgerIdentifiers, accountEntryEntities, ledgerTotalAdjustments, dailyBalances);
+    }
+    // process all creditors
+    for (final CreditorType creditor : journalEntryEntity.getCreditors()) {
+      final AccountEntity accountEntity =
+          accountEntities.computeIfAbsent(creditor.getAccountNumber(), this.accountRepository::findByIdentifier);
+      final long amount;
+      switch (AccountType.valueOf(accountEntity.getType())) {
+        case ASSET:
+        case EXPENSE:
+          amount = -Money.valueOf(creditor.getAmount());
+          break;
+        case LIABILITY:
+        case EQUITY:
+        case REVENUE:
+          amount = Money.valueOf(creditor.getAmount());
+          break;
+        default:
+          amount = 0L;
+      }
+      this.addAccountEntry(journalEntryEntity, accountEntity, AccountEntry.Type.CREDIT, creditor.getAmount(), amount,
+          ledgerIdentifiers, accountEntryEntities, ledgerTotalAdjustments, dailyBalances);
+    }
+  }
+
+  private void addAccountEntry(final JournalEntryEntity journalEntryEntity,
+                               final AccountEntity accountEntity,
+                               final AccountEntry.Type type,
+                               final Double entryAmount,
+                               final long balanceAdjustment,
+                               final Map<String, String> ledgerIdentifiers,
+                               final List<AccountEntryEntity> accountEntryEntities,
+                               final Map<String, long[]> ledgerTotalAdjustments,
+                               final Map<String, long[]> dailyBalances) {
+    final long openingBalance = Money.valueOf(accountEntity.getBalance());
+    if (balanceAdjustment != 0L) {
+      accountEntity.setBalance(
+          Money.toDouble(Money.add(Money.valueOf(accountEntity.getBalance()), balanceAdjustment)));
+    }
+    final AccountEntryEntity accountEntryEntity = new AccountEntryEntity();
+    accountEntryEntity.setType(type.name());
+    accountEntryEntity.setAccount(accountEntity);
+    accountEntryEntity.setBalance(accountEntity.getBalance());
+    // the account is locked, so its entries are numbered in booking order whichever node books them
+    accountEntity.setBookingSequence(accountEntity.getBookingSequence() + 1L);
+    accountEntryEntity.setBookingSequence(accountEntity.getBookingSequence());
+    accountEntryEntity.setAmount(entryAmount);
+    accountEntryEntity.setMessage(journalEntryEntity.getMessage());
+    accountEntryEntity.setTransactionDate(journalEntryEntity.getTransactionDate());
+    accountEntryEntities.add(accountEntryEntity);
+    final String ledgerIdentifier = ledgerIdentifiers.computeIfAbsent(accountEntity.getIdentifier(),
+        key -> accountEntity.getLedger().getIdentifier());
+    final long[] ledgerTotalAdjustment = ledgerTotalAdjustments.computeIfAbsent(ledgerIdentifier, key -> new long[1]);
+    ledgerTotalAdjustment[0] = Money.add(ledgerTotalAdjustment[0], balanceAdjustment);
+    // account id, epoch day, opening and closing balance, debit and credit turnover
+    final LocalDate balanceDate = journalEntryEntity.getTransactionDate().toLocalDate();
+    final long[] dailyBalance = dailyBalances.computeIfAbsent(accountEntity.getId() + "/" + balanceDate,
+        key -> new long[]{accountEntity.getId(), balanceDate.toEpochDay(), openingBalance, 0L, 0L, 0L});
+    dailyBalance[3] = Money.valueOf(accountEntity.getBalance());
+    if (type == AccountEntry.Type.DEBIT) {
+      dailyBalance[4] = Money.add(dailyBalance[4], Money.valueOf(entryAmount));
+    } else {
+      dailyBalance[5] = Money.add(dailyBalance[5], Money.valueOf(entryAmount));
     }
   }
+
+  private void save(final Map<String, AccountEntity> accountEntities,
+                    final List<AccountEntryEntity> accountEntryEntities,
+                    final Map<String, long[]> ledgerTotalAdjustments,
+                    final Map<String, long[]> dailyBalances) {
+    this.accountRepository.save(accountEntities.values());
+    this.accountEntryRepository.save(accountEntryEntities);
+    dailyBalances.values().forEach(dailyBalance ->
+        this.accountDailyBalanceRepository.upsert(dailyBalance[0], LocalDate.ofEpochDay(dailyBalance[1]),
+            Money.toBigDecimal(dailyBalance[2]), Money.toBigDecimal(dailyBalance[3]),
+            Money.toBigDecimal(dailyBalance[4]), Money.toBigDecimal(dailyBalance[5])));
+    final Map<String, BigDecimal> ledgerTotalValueAdjustments = new HashMap<>(ledgerTotalAdjustments.size());
+    ledgerTotalAdjustments.forEach((ledgerIdentifier, amount) ->
+        ledgerTotalValueAdjustments.put(ledgerIdentifier, Money.toBigDecimal(amount[0])));
+    this.adjustLedgerTotals(ledgerTotalValueAdjustments);
+  }
 }
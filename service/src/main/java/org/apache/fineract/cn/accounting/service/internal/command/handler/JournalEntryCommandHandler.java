@@ -22,15 +22,21 @@ import org.apache.fineract.cn.accounting.api.v1.EventConstants;
 import org.apache.fineract.cn.accounting.api.v1.domain.Creditor;
 import org.apache.fineract.cn.accounting.api.v1.domain.Debtor;
 import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
+import org.apache.fineract.cn.accounting.service.internal.command.BookJournalEntriesCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.BookJournalEntryCommand;
+import org.apache.fineract.cn.accounting.service.internal.command.CreateJournalEntriesCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.CreateJournalEntryCommand;
+import org.apache.fineract.cn.accounting.service.internal.command.ReleaseJournalEntriesCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.ReleaseJournalEntryCommand;
+import org.apache.fineract.cn.accounting.service.internal.posting.PostingExecutor;
 import org.apache.fineract.cn.accounting.service.internal.repository.CreditorType;
 import org.apache.fineract.cn.accounting.service.internal.repository.DebtorType;
 import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryRepository;
 import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -39,7 +45,6 @@ import org.apache.fineract.cn.command.annotation.Aggregate;
 import org.apache.fineract.cn.command.annotation.CommandHandler;
 import org.apache.fineract.cn.command.annotation.CommandLogLevel;
 import org.apache.fineract.cn.command.annotation.EventEmitter;
-import org.apache.fineract.cn.command.gateway.CommandGateway;
 import org.apache.fineract.cn.lang.DateConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
@@ -48,14 +53,14 @@ import org.springframework.transaction.annotation.Transactional;
 @Aggregate
 public class JournalEntryCommandHandler {
 
-  private final CommandGateway commandGateway;
   private final JournalEntryRepository journalEntryRepository;
+  private final PostingExecutor postingExecutor;
 
   @Autowired
-  public JournalEntryCommandHandler(final CommandGateway commandGateway,
-                                    final JournalEntryRepository journalEntryRepository) {
-    this.commandGateway = commandGateway;
+  public JournalEntryCommandHandler(final JournalEntryRepository journalEntryRepository,
+                                    final PostingExecutor postingExecutor) {
     this.journalEntryRepository = journalEntryRepository;
+    this.postingExecutor = postingExecutor;
   }
 
   @Transactional
@@ -63,6 +68,52 @@ public class JournalEntryCommandHandler {
   @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.POST_JOURNAL_ENTRY)
   public String createJournalEntry(final CreateJournalEntryCommand createJournalEntryCommand) {
     final JournalEntry journalEntry = createJournalEntryCommand.journalEntry();
+    final JournalEntryEntity journalEntryEntity = this.map(journalEntry);
+    journalEntryRepository.saveJournalEntry(journalEntryEntity);
+    this.postingExecutor.submit(this.accountNumbers(journalEntryEntity),
+        new BookJournalEntryCommand(journalEntry.getTransactionIdentifier()));
+    return journalEntry.getTransactionIdentifier();
+  }
+
+  @Transactional
+  @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
+  @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.POST_JOURNAL_ENTRIES)
+  public List<String> createJournalEntries(final CreateJournalEntriesCommand createJournalEntriesCommand) {
+    final List<JournalEntryEntity> journalEntryEntities = createJournalEntriesCommand.journalEntries()
+        .stream()
+        .map(this::map)
+        .collect(Collectors.toList());
+    this.journalEntryRepository.saveJournalEntries(journalEntryEntities);
+    final Set<String> accountNumbers = new HashSet<>();
+    journalEntryEntities.forEach(journalEntryEntity -> accountNumbers.addAll(this.accountNumbers(journalEntryEntity)));
+    this.postingExecutor.submit(accountNumbers, new BookJournalEntriesCommand(journalEntryEntities));
+    return journalEntryEntities
+        .stream()
+        .map(JournalEntryEntity::getTransactionIdentifier)
+        .collect(Collectors.toList());
+  }
+
+  @Transactional
+  @CommandHandler(logStart = CommandLogLevel.NONE, logFinish = CommandLogLevel.NONE)
+  public void releaseJournalEntry(final ReleaseJournalEntryCommand releaseJournalEntryCommand) {
+    final String transactionIdentifier = releaseJournalEntryCommand.transactionIdentifier();
+    final Optional<JournalEntryEntity> optionalJournalEntry = this.journalEntryRepository.findJournalEntry(transactionIdentifier);
+    if (optionalJournalEntry.isPresent()) {
+      final JournalEntryEntity journalEntryEntity = optionalJournalEntry.get();
+      journalEntryEntity.setState(JournalEntry.State.PROCESSED.name());
+      this.journalEntryRepository.saveJournalEntry(journalEntryEntity);
+    }
+  }
+
+  @Transactional
+  @CommandHandler(logStart = CommandLogLevel.NONE, logFinish = CommandLogLevel.NONE)
+  public void releaseJournalEntries(final ReleaseJournalEntriesCommand releaseJournalEntriesCommand) {
+    final List<JournalEntryEntity> journalEntryEntities = releaseJournalEntriesCommand.journalEntries();
+    journalEntryEntities.forEach(journalEntryEntity -> journalEntryEntity.setState(JournalEntry.State.PROCESSED.name()));
+    this.journalEntryRepository.saveJournalEntries(journalEntryEntities);
+  }
+
+  private JournalEntryEntity map(final JournalEntry journalEntry) {
     final Set<Debtor> debtors = journalEntry.getDebtors();
     final Set<DebtorType> debtorTypes = debtors
         .stream()
@@ -87,6 +138,7 @@ public class JournalEntryCommandHandler {
     journalEntryEntity.setTransactionIdentifier(journalEntry.getTransactionIdentifier());
     final LocalDateTime transactionDate = DateConverter.fromIsoString(journalEntry.getTransactionDate());
     journalEntryEntity.setDateBucket(DateConverter.toIsoString(DateConverter.toLocalDate(transactionDate)));
+    journalEntryEntity.setShard(JournalEntryEntity.shard(journalEntry.getTransactionIdentifier()));
     journalEntryEntity.setTransactionDate(transactionDate);
     journalEntryEntity.setTransactionType(journalEntry.getTransactionType());
     journalEntryEntity.setClerk(journalEntry.getClerk() != null ? journalEntry.getClerk() : UserContextHolder.checkedGetUser());
@@ -97,20 +149,13 @@ public class JournalEntryCommandHandler {
     journalEntryEntity.setState(JournalEntry.State.PENDING.name());
     journalEntryEntity.setCreatedBy(UserContextHolder.checkedGetUser());
     journalEntryEntity.setCreatedOn(LocalDateTime.now(Clock.systemUTC()));
-    journalEntryRepository.saveJournalEntry(journalEntryEntity);
-    this.commandGateway.process(new BookJournalEntryCommand(journalEntry.getTransactionIdentifier()));
-    return journalEntry.getTransactionIdentifier();
+    return journalEntryEntity;
   }
 
-  @Transactional
-  @CommandHandler(logStart = CommandLogLevel.NONE, logFinish = CommandLogLevel.NONE)
-  public void releaseJournalEntry(final ReleaseJournalEntryCommand releaseJournalEntryCommand) {
-    final String transactionIdentifier = releaseJournalEntryCommand.transactionIdentifier();
-    final Optional<JournalEntryEntity> optionalJournalEntry = this.journalEntryRepository.findJournalEntry(transactionIdentifier);
-    if (optionalJournalEntry.isPresent()) {
-      final JournalEntryEntity journalEntryEntity = optionalJournalEntry.get();
-      journalEntryEntity.setState(JournalEntry.State.PROCESSED.name());
-      this.journalEntryRepository.saveJournalEntry(journalEntryEntity);
-    }
+  private Set<String> accountNumbers(final JournalEntryEntity journalEntryEntity) {
+    final Set<String> accountNumbers = new HashSet<>();
+    journalEntryEntity.getDebtors().forEach(debtorType -> accountNumbers.add(debtorType.getAccountNumber()));
+    journalEntryEntity.getCreditors().forEach(creditorType -> accountNumbers.add(creditorType.getAccountNumber()));
+    return accountNumbers;
   }
 }
@@ -19,14 +19,22 @@
 package org.apache.fineract.cn.accounting.service.internal.command.handler;
 
 import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.schemabuilder.SchemaBuilder;
 import org.apache.fineract.cn.accounting.api.v1.EventConstants;
 import org.apache.fineract.cn.accounting.service.ServiceConstants;
 import org.apache.fineract.cn.accounting.service.internal.command.InitializeServiceCommand;
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryRepository;
+import org.apache.fineract.cn.accounting.service.internal.service.AccountDailyBalanceBackfill;
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.sql.DataSource;
 import org.apache.fineract.cn.cassandra.core.CassandraJourney;
 import org.apache.fineract.cn.cassandra.core.CassandraJourneyFactory;
@@ -51,6 +59,9 @@ import org.springframework.transaction.annotation.Transactional;
 @Aggregate
 public class MigrationCommandHandler {
 
+  private static final String JOURNAL_ENTRY_SHARDS_MIGRATION = "journal_entry_shards";
+  private static final String DAILY_BALANCES_MIGRATION = "account_daily_balances";
+
   private final Logger logger;
   private final DataSource dataSource;
   private final FlywayFactoryBean flywayFactoryBean;
@@ -58,6 +69,8 @@ public class MigrationCommandHandler {
   private final CassandraJourneyFactory cassandraJourneyFactory;
   private final AccountRepository accountRepository;
   private final AccountCommandHandler accountCommandHandler;
+  private final JournalEntryRepository journalEntryRepository;
+  private final AccountDailyBalanceBackfill accountDailyBalanceBackfill;
 
   @SuppressWarnings("SpringJavaAutowiringInspection")
   @Autowired
@@ -67,7 +80,9 @@ public class MigrationCommandHandler {
                                  final CassandraSessionProvider cassandraSessionProvider,
                                  final CassandraJourneyFactory cassandraJourneyFactory,
                                  final AccountRepository accountRepository,
-                                 final AccountCommandHandler accountCommandHandler) {
+                                 final AccountCommandHandler accountCommandHandler,
+                                 final JournalEntryRepository journalEntryRepository,
+                                 final AccountDailyBalanceBackfill accountDailyBalanceBackfill) {
     super();
     this.logger = logger;
     this.dataSource = dataSource;
@@ -76,6 +91,8 @@ public class MigrationCommandHandler {
     this.cassandraJourneyFactory = cassandraJourneyFactory;
     this.accountRepository = accountRepository;
     this.accountCommandHandler = accountCommandHandler;
+    this.journalEntryRepository = journalEntryRepository;
+    this.accountDailyBalanceBackfill = accountDailyBalanceBackfill;
   }
 
   @Transactional
@@ -155,24 +172,131 @@ public class MigrationCommandHandler {
         )
         .build();
 
+    final CassandraJourneyRoute updateRouteVersion4 = CassandraJourneyRoute
+        .plan("4")
+        .addWaypoint(
+            SchemaBuilder
+                .createTable("thoth_journal_entries_by_account")
+                .addPartitionKey("account_number", DataType.text())
+                .addPartitionKey("month", DataType.text())
+                .addClusteringColumn("transaction_date", DataType.timestamp())
+                .addClusteringColumn("transaction_identifier", DataType.text())
+                .addColumn("date_bucket", DataType.text())
+                .buildInternal())
+        .build();
+
+    final CassandraJourneyRoute updateRouteVersion5 = CassandraJourneyRoute
+        .plan("5")
+        .addWaypoint(
+            SchemaBuilder
+                .createTable("thoth_sharded_journal_entries")
+                .addPartitionKey("date_bucket", DataType.text())
+                .addPartitionKey("shard", DataType.cint())
+                .addClusteringColumn("transaction_identifier", DataType.text())
+                .addColumn("transaction_date", DataType.timestamp())
+                .addColumn("transaction_type", DataType.text())
+                .addColumn("clerk", DataType.text())
+                .addColumn("note", DataType.text())
+                .addUDTSetColumn("debtors", SchemaBuilder.frozen("thoth_debtor"))
+                .addUDTSetColumn("creditors", SchemaBuilder.frozen("thoth_creditor"))
+                .addColumn("state", DataType.text())
+                .addColumn("message", DataType.text())
+                .addColumn("created_on", DataType.timestamp())
+                .addColumn("created_by", DataType.text())
+                .buildInternal())
+        .addWaypoint(
+            SchemaBuilder
+                .alterTable("thoth_journal_entry_lookup")
+                .addColumn("shard").type(DataType.cint())
+                .getQueryString()
+        )
+        .addWaypoint(
+            SchemaBuilder
+                .alterTable("thoth_journal_entries_by_account")
+                .addColumn("shard").type(DataType.cint())
+                .getQueryString()
+        )
+        .build();
+
+    final CassandraJourneyRoute updateRouteVersion6 = CassandraJourneyRoute
+        .plan("6")
+        .addWaypoint(
+            SchemaBuilder
+                .createTable("thoth_migrations")
+                .addPartitionKey("migration", DataType.text())
+                .addColumn("finished_on", DataType.timestamp())
+                .buildInternal())
+        .build();
+
+    // if the sharded table exists already, an earlier copy may have been interrupted and is resumed
+    final boolean resumeJournalEntryShardMigration = this.tableExists("thoth_sharded_journal_entries");
+
     final CassandraJourney cassandraJourney = this.cassandraJourneyFactory.create(this.cassandraSessionProvider);
     cassandraJourney.start(initialRoute);
     cassandraJourney.start(updateRouteVersion2);
     cassandraJourney.start(updateRouteVersion3);
+    cassandraJourney.start(updateRouteVersion4);
+    cassandraJourney.start(updateRouteVersion5);
+    cassandraJourney.start(updateRouteVersion6);
 
     if (shouldMigrateLedgerTotals) {
       this.migrateLedgerTotals();
     }
 
+    // the migration to shards also writes the account index rows, so tenants without either are covered by it; it
+    // is repeated on every start until its marker is written
+    if (!this.migrationFinished(JOURNAL_ENTRY_SHARDS_MIGRATION)) {
+      this.migrateJournalEntriesToShards(resumeJournalEntryShardMigration);
+      this.finishMigration(JOURNAL_ENTRY_SHARDS_MIGRATION);
+    }
+
+    // rebuilding is idempotent, so the backfill is repeated on every start until its marker is written, a chunk that
+    // failed before is rebuilt with the others
+    if (!this.migrationFinished(DAILY_BALANCES_MIGRATION)) {
+      this.accountDailyBalanceBackfill.backfill();
+      this.finishMigration(DAILY_BALANCES_MIGRATION);
+    }
+
     return versionNumber;
   }
 
   public void migrateLedgerTotals() {
     this.logger.info("Start ledger total migration ...");
 
+    final Map<String, BigDecimal> ledgerTotalAdjustments = new HashMap<>();
     this.accountRepository.findByBalanceIsNot(0.00D).forEach(accountEntity ->
-      this.accountCommandHandler.adjustLedgerTotals(accountEntity.getLedger().getIdentifier(),
-          BigDecimal.valueOf(accountEntity.getBalance()))
+        ledgerTotalAdjustments.merge(accountEntity.getLedger().getIdentifier(),
+            BigDecimal.valueOf(accountEntity.getBalance()), BigDecimal::add)
     );
+    this.accountCommandHandler.adjustLedgerTotals(ledgerTotalAdjustments);
+  }
+
+  public void migrateJournalEntriesToShards(final boolean resume) {
+    this.logger.info(resume ? "Resume journal entry shard migration ..." : "Start journal entry shard migration ...");
+
+    final long count = this.journalEntryRepository.migrateJournalEntriesToShards(resume);
+    this.logger.info("Journal entry shard migration finished for {} journal entries.", count);
+  }
+
+  private boolean migrationFinished(final String migration) {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+    return tenantSession.execute(
+        QueryBuilder.select("migration").from("thoth_migrations").where(QueryBuilder.eq("migration", migration)))
+        .one() != null;
+  }
+
+  private void finishMigration(final String migration) {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+    tenantSession.execute(
+        QueryBuilder.insertInto("thoth_migrations")
+            .value("migration", migration)
+            .value("finished_on", new Date()));
+  }
+
+  private boolean tableExists(final String table) {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+    final KeyspaceMetadata keyspaceMetadata =
+        tenantSession.getCluster().getMetadata().getKeyspace(tenantSession.getLoggedKeyspace());
+    return keyspaceMetadata != null && keyspaceMetadata.getTable(table) != null;
   }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import org.apache.fineract.cn.accounting.service.internal.command.CreateTransact
 import org.apache.fineract.cn.accounting.service.internal.mapper.TransactionTypeMapper;
 import org.apache.fineract.cn.accounting.service.internal.repository.TransactionTypeEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.TransactionTypeRepository;
+import org.apache.fineract.cn.accounting.service.internal.service.TransactionTypeCache;
 import java.util.Optional;
 import org.apache.fineract.cn.command.annotation.Aggregate;
 import org.apache.fineract.cn.command.annotation.CommandHandler;
@@ -37,11 +38,14 @@ import org.springframework.transaction.annotation.Transactional;
 @Aggregate
 public class TransactionTypeAggregate {
   private final TransactionTypeRepository transactionTypeRepository;
+  private final TransactionTypeCache transactionTypeCache;
 
   @Autowired
-  public TransactionTypeAggregate(final TransactionTypeRepository transactionTypeRepository) {
+  public TransactionTypeAggregate(final TransactionTypeRepository transactionTypeRepository,
+                                  final TransactionTypeCache transactionTypeCache) {
     super();
     this.transactionTypeRepository = transactionTypeRepository;
+    this.transactionTypeCache = transactionTypeCache;
   }
 
   @Transactional
@@ -50,7 +54,7 @@ public class TransactionTypeAggregate {
   public String createTransactionType(final CreateTransactionTypeCommand createTransactionTypeCommand) {
     final TransactionType transactionType = createTransactionTypeCommand.transactionType();
 
-    this.transactionTypeRepository.save(TransactionTypeMapper.map(transactionType));
+    this.transactionTypeCache.put(this.transactionTypeRepository.save(TransactionTypeMapper.map(transactionType)));
 
     return transactionType.getCode();
   }
@@ -67,7 +71,7 @@ public class TransactionTypeAggregate {
     optionalTransactionTypeEntity.ifPresent(transactionTypeEntity -> {
       transactionTypeEntity.setName(transactionType.getName());
       transactionTypeEntity.setDescription(transactionType.getDescription());
-      this.transactionTypeRepository.save(transactionTypeEntity);
+      this.transactionTypeCache.put(this.transactionTypeRepository.save(transactionTypeEntity));
     });
 
     return transactionType.getCode();
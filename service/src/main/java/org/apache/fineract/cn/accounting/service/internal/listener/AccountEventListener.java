@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.listener;
+
+import com.google.gson.Gson;
+import org.apache.fineract.cn.accounting.api.v1.EventConstants;
+import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import org.apache.fineract.cn.accounting.service.internal.service.AccountProjectionCache;
+import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached account projections when any node changed an account.
+ */
+@SuppressWarnings("unused")
+@Component
+public class AccountEventListener {
+
+  private static final String SELECTOR_ACCOUNT_CHANGES = EventConstants.SELECTOR_NAME + " IN ('"
+      + EventConstants.PUT_ACCOUNT + "', '"
+      + EventConstants.LOCK_ACCOUNT + "', '"
+      + EventConstants.UNLOCK_ACCOUNT + "', '"
+      + EventConstants.CLOSE_ACCOUNT + "', '"
+      + EventConstants.REOPEN_ACCOUNT + "', '"
+      + EventConstants.DELETE_ACCOUNT + "')";
+
+  private final Logger logger;
+  private final AccountProjectionCache accountProjectionCache;
+  private final Gson gson;
+
+  @Autowired
+  public AccountEventListener(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                              final AccountProjectionCache accountProjectionCache) {
+    super();
+    this.logger = logger;
+    this.accountProjectionCache = accountProjectionCache;
+    this.gson = new Gson();
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = AccountEventListener.SELECTOR_ACCOUNT_CHANGES
+  )
+  public void onAccountChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                               final String payload) {
+    final String identifier = this.gson.fromJson(payload, String.class);
+    this.logger.debug("Account {} of tenant {} changed, evicting cached projection.", identifier, tenant);
+    this.accountProjectionCache.evict(tenant, identifier);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.listener;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.apache.fineract.cn.accounting.api.v1.EventConstants;
+import org.apache.fineract.cn.accounting.service.internal.repository.TransactionIdentifierFilter;
+import java.util.List;
+import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds journal entries posted on any node to the transaction identifier filter of this node.
+ */
+@SuppressWarnings("unused")
+@Component
+public class JournalEntryEventListener {
+
+  private final TransactionIdentifierFilter transactionIdentifierFilter;
+  private final Gson gson;
+
+  @Autowired
+  public JournalEntryEventListener(final TransactionIdentifierFilter transactionIdentifierFilter) {
+    super();
+    this.transactionIdentifierFilter = transactionIdentifierFilter;
+    this.gson = new Gson();
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = EventConstants.SELECTOR_POST_JOURNAL_ENTRY
+  )
+  public void onPostJournalEntry(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                 final String payload) {
+    this.transactionIdentifierFilter.put(tenant, this.gson.fromJson(payload, String.class));
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = EventConstants.SELECTOR_POST_JOURNAL_ENTRIES
+  )
+  public void onPostJournalEntries(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                   final String payload) {
+    final List<String> transactionIdentifiers =
+        this.gson.fromJson(payload, new TypeToken<List<String>>() { }.getType());
+    transactionIdentifiers.forEach(transactionIdentifier ->
+        this.transactionIdentifierFilter.put(tenant, transactionIdentifier));
+  }
+}
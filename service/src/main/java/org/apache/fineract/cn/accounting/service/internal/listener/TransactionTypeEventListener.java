@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.listener;
+
+import org.apache.fineract.cn.accounting.api.v1.EventConstants;
+import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import org.apache.fineract.cn.accounting.service.internal.service.TransactionTypeCache;
+import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the cached transaction types of a tenant when any node created or changed one.
+ */
+@SuppressWarnings("unused")
+@Component
+public class TransactionTypeEventListener {
+
+  private static final String SELECTOR_TRANSACTION_TYPE_CHANGES = EventConstants.SELECTOR_NAME + " IN ('"
+      + EventConstants.POST_TX_TYPE + "', '"
+      + EventConstants.PUT_TX_TYPE + "')";
+
+  private final Logger logger;
+  private final TransactionTypeCache transactionTypeCache;
+
+  @Autowired
+  public TransactionTypeEventListener(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                                      final TransactionTypeCache transactionTypeCache) {
+    super();
+    this.logger = logger;
+    this.transactionTypeCache = transactionTypeCache;
+  }
+
+  @JmsListener(
+      destination = EventConstants.DESTINATION,
+      selector = TransactionTypeEventListener.SELECTOR_TRANSACTION_TYPE_CHANGES
+  )
+  public void onTransactionTypeChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                       final String payload) {
+    this.logger.debug("Transaction type {} of tenant {} changed, dropping cached transaction types.", payload, tenant);
+    this.transactionTypeCache.invalidate(tenant);
+  }
+}
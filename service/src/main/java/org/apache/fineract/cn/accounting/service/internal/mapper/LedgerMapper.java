@@ -45,8 +45,13 @@ public class LedgerMapper {
       ledger.setLastModifiedOn(DateConverter.toIsoString(ledgerEntity.getLastModifiedOn()));
     }
     ledger.setShowAccountsInChart(ledgerEntity.getShowAccountsInChart());
-    final BigDecimal totalValue = ledgerEntity.getTotalValue() != null ? ledgerEntity.getTotalValue() : BigDecimal.ZERO;
-    ledger.setTotalValue(totalValue);
+    ledger.setTotalValue(LedgerMapper.mapTotalValue(ledgerEntity));
     return ledger;
   }
+
+  public static BigDecimal mapTotalValue(final LedgerEntity ledgerEntity) {
+    final BigDecimal totalValue = ledgerEntity.getTotalValue() != null ? ledgerEntity.getTotalValue() : BigDecimal.ZERO;
+    // adjustments not yet folded into the total by the compactor
+    return ledgerEntity.getShardedTotalValue() != null ? totalValue.add(ledgerEntity.getShardedTotalValue()) : totalValue;
+  }
 }
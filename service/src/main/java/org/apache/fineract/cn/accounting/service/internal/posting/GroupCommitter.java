@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.posting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+
+/**
+ * Collects items submitted concurrently by the same tenant and applies them as one group.
+ *
+ * <p>The first thread submitting into an empty group becomes its leader: it waits until the group is
+ * full or the maximum latency has passed, then applies the whole group with the group action. If that
+ * fails, every item is applied on its own with the item action, so a single bad item can't fail its
+ * neighbours. Each submitting thread returns once its item has been applied.</p>
+ */
+public class GroupCommitter<T> {
+
+  private final int maxGroupSize;
+  private final long maxLatency;
+  private final Consumer<List<T>> groupAction;
+  private final Consumer<T> itemAction;
+  private final Map<String, Group<T>> openGroups = new HashMap<>();
+
+  public GroupCommitter(final int maxGroupSize,
+                        final long maxLatency,
+                        final Consumer<List<T>> groupAction,
+                        final Consumer<T> itemAction) {
+    super();
+    this.maxGroupSize = maxGroupSize;
+    this.maxLatency = maxLatency;
+    this.groupAction = groupAction;
+    this.itemAction = itemAction;
+  }
+
+  public void submit(final T item) {
+    if (this.maxGroupSize <= 1) {
+      this.itemAction.accept(item);
+      return;
+    }
+
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final Group<T> group;
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final boolean leader;
+    synchronized (this.openGroups) {
+      final Group<T> openGroup = this.openGroups.get(tenantIdentifier);
+      if (openGroup == null) {
+        group = new Group<>();
+        this.openGroups.put(tenantIdentifier, group);
+        leader = true;
+      } else {
+        group = openGroup;
+        leader = false;
+      }
+      group.items.add(item);
+      group.futures.add(future);
+      if (group.items.size() >= this.maxGroupSize) {
+        this.openGroups.remove(tenantIdentifier);
+        group.full.countDown();
+      }
+    }
+
+    if (leader) {
+      this.lead(tenantIdentifier, group);
+    }
+
+    try {
+      future.get();
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for group commit.", ex);
+    } catch (final ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  private void lead(final String tenantIdentifier, final Group<T> group) {
+    try {
+      group.full.await(this.maxLatency, TimeUnit.MILLISECONDS);
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    final List<T> items;
+    final List<CompletableFuture<Void>> futures;
+    synchronized (this.openGroups) {
+      this.openGroups.remove(tenantIdentifier, group);
+      items = Collections.unmodifiableList(new ArrayList<>(group.items));
+      futures = new ArrayList<>(group.futures);
+    }
+
+    try {
+      this.groupAction.accept(items);
+      futures.forEach(future -> future.complete(null));
+    } catch (final RuntimeException groupFailure) {
+      for (int i = 0; i < items.size(); i++) {
+        try {
+          this.itemAction.accept(items.get(i));
+          futures.get(i).complete(null);
+        } catch (final RuntimeException itemFailure) {
+          futures.get(i).completeExceptionally(itemFailure);
+        }
+      }
+    }
+  }
+
+  private static class Group<T> {
+    private final List<T> items = new ArrayList<>();
+    private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    private final CountDownLatch full = new CountDownLatch(1);
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.posting;
+
+import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PessimisticLockException;
+import org.apache.fineract.cn.api.util.UserContext;
+import org.apache.fineract.cn.api.util.UserContextHolder;
+import org.apache.fineract.cn.command.gateway.CommandGateway;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs booking commands on a fixed number of lanes instead of the unbounded async pool.
+ *
+ * <p>Every account number has a FIFO queue of the postings submitted for it. A posting is handed to a lane once it
+ * is first in the queues of all its accounts, and leaves them when it is booked or has finally failed. Postings
+ * sharing an account are therefore booked one after the other in the order they were submitted, postings on
+ * disjoint accounts run in parallel. A posting retried after a concurrent modification keeps its place in the
+ * queues while it backs off, but does not occupy its lane meanwhile.</p>
+ */
+@Component
+public class PostingExecutor {
+
+  private final Logger logger;
+  private final CommandGateway commandGateway;
+  private final CounterService counterService;
+  private final ThreadPoolExecutor[] lanes;
+  private final ScheduledExecutorService retryScheduler;
+  private final Semaphore capacity;
+  private final Map<String, ArrayDeque<Posting>> accountQueues = new HashMap<>();
+  private final Integer maxRetries;
+  private final Long retryBackoff;
+
+  @Autowired
+  public PostingExecutor(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                         final CommandGateway commandGateway,
+                         final CounterService counterService,
+                         @Value("${accounting.posting.lanes:0}") final Integer lanes,
+                         @Value("${accounting.posting.laneCapacity:1000}") final Integer laneCapacity,
+                         @Value("${accounting.posting.maxRetries:5}") final Integer maxRetries,
+                         @Value("${accounting.posting.retryBackoff:20}") final Long retryBackoff) {
+    super();
+    this.logger = logger;
+    this.commandGateway = commandGateway;
+    this.counterService = counterService;
+    this.maxRetries = maxRetries;
+    this.retryBackoff = retryBackoff;
+
+    final int laneCount = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+    this.lanes = new ThreadPoolExecutor[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      final String threadName = "posting-lane-" + i;
+      this.lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, threadName));
+    }
+    this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "posting-retry");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // postings not yet booked, waiting or running, are bounded; a full executor blocks the submitting thread,
+    // propagating back pressure to the callers
+    this.capacity = new Semaphore(laneCount * laneCapacity, true);
+  }
+
+  public void submit(final Collection<String> accountNumbers, final Object bookingCommand) {
+    try {
+      this.capacity.acquire();
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for posting lane.", ex);
+    }
+
+    // until the posting is queued the permit is handed back on any failure, it would leak otherwise
+    final SortedSet<String> sortedAccountNumbers;
+    final Posting posting;
+    try {
+      sortedAccountNumbers = new TreeSet<>(accountNumbers);
+      final int lane = sortedAccountNumbers.isEmpty()
+          ? ThreadLocalRandom.current().nextInt(this.lanes.length)
+          : Math.floorMod(sortedAccountNumbers.first().hashCode(), this.lanes.length);
+      posting = new Posting(sortedAccountNumbers, bookingCommand, lane,
+          TenantContextHolder.checkedGetIdentifier(), UserContextHolder.getUserContext(),
+          SecurityContextHolder.getContext());
+    } catch (final RuntimeException ex) {
+      this.capacity.release();
+      throw ex;
+    }
+
+    final boolean unblocked;
+    synchronized (this.accountQueues) {
+      sortedAccountNumbers.forEach(accountNumber -> {
+        final ArrayDeque<Posting> accountQueue =
+            this.accountQueues.computeIfAbsent(accountNumber, key -> new ArrayDeque<>());
+        if (!accountQueue.isEmpty()) {
+          posting.blockingAccounts++;
+        }
+        accountQueue.addLast(posting);
+      });
+      unblocked = posting.blockingAccounts == 0;
+    }
+    if (unblocked) {
+      try {
+        this.dispatch(posting);
+      } catch (final RuntimeException ex) {
+        // the posting never reaches its lane, so it leaves its queues and hands back its permit right away
+        try {
+          this.complete(posting);
+        } catch (final RuntimeException completeEx) {
+          ex.addSuppressed(completeEx);
+        }
+        throw ex;
+      }
+    }
+  }
+
+  public int getLaneCount() {
+    return this.lanes.length;
+  }
+
+  public int getLaneDepth(final int lane) {
+    return this.lanes[lane].getQueue().size() + this.lanes[lane].getActiveCount();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.retryScheduler.shutdownNow();
+    for (final ThreadPoolExecutor lane : this.lanes) {
+      lane.shutdown();
+    }
+  }
+
+  private void dispatch(final Posting posting) {
+    this.lanes[posting.lane].execute(() -> this.run(posting));
+  }
+
+  private void run(final Posting posting) {
+    TenantContextHolder.setIdentifier(posting.tenantIdentifier);
+    posting.userContext.ifPresent(UserContextHolder::setUserContext);
+    SecurityContextHolder.setContext(posting.securityContext);
+    final boolean retry;
+    try {
+      retry = this.book(posting);
+    } finally {
+      SecurityContextHolder.clearContext();
+      UserContextHolder.clear();
+      TenantContextHolder.clear();
+    }
+
+    if (retry) {
+      // exponential backoff with jitter, so competing writers don't collide again in lock step
+      final long backoff = this.retryBackoff << Math.min(posting.attempt - 2, 10);
+      this.retryScheduler.schedule(() -> this.dispatch(posting),
+          backoff + ThreadLocalRandom.current().nextLong(backoff + 1L), TimeUnit.MILLISECONDS);
+    } else {
+      this.complete(posting);
+    }
+  }
+
+  /**
+   * Returns true if the posting is to be retried.
+   */
+  private boolean book(final Posting posting) {
+    final int attempt = posting.attempt++;
+    try {
+      this.commandGateway.process(posting.bookingCommand, Object.class).get();
+      this.counterService.increment("accounting.posting.booked");
+      return false;
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      this.counterService.increment("accounting.posting.failed");
+      this.logger.error("Interrupted while booking {}.", posting.bookingCommand, ex);
+      return false;
+    } catch (final Exception ex) {
+      if (attempt > this.maxRetries || !PostingExecutor.isConcurrencyFailure(ex)) {
+        this.counterService.increment("accounting.posting.failed");
+        this.logger.error("Could not book {}.", posting.bookingCommand, ex);
+        return false;
+      }
+      this.counterService.increment("accounting.posting.retried");
+      this.logger.debug("Concurrent modification while booking {}, retrying.", posting.bookingCommand);
+      return true;
+    }
+  }
+
+  private void complete(final Posting posting) {
+    final List<Posting> unblockedPostings = new ArrayList<>();
+    synchronized (this.accountQueues) {
+      posting.accountNumbers.forEach(accountNumber -> {
+        final ArrayDeque<Posting> accountQueue = this.accountQueues.get(accountNumber);
+        accountQueue.pollFirst();
+        if (accountQueue.isEmpty()) {
+          this.accountQueues.remove(accountNumber);
+        } else {
+          final Posting nextPosting = accountQueue.peekFirst();
+          if (--nextPosting.blockingAccounts == 0) {
+            unblockedPostings.add(nextPosting);
+          }
+        }
+      });
+    }
+    this.capacity.release();
+    unblockedPostings.forEach(this::dispatch);
+  }
+
+  private static boolean isConcurrencyFailure(final Throwable throwable) {
+    for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConcurrencyFailureException
+          || cause instanceof OptimisticLockException
+          || cause instanceof PessimisticLockException
+          || cause instanceof LockTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Posting {
+
+    private final SortedSet<String> accountNumbers;
+    private final Object bookingCommand;
+    private final int lane;
+    private final String tenantIdentifier;
+    private final Optional<UserContext> userContext;
+    private final SecurityContext securityContext;
+    // number of account queues this posting is not first in yet, guarded by the account queues
+    private int blockingAccounts = 0;
+    private int attempt = 1;
+
+    private Posting(final SortedSet<String> accountNumbers,
+                    final Object bookingCommand,
+                    final int lane,
+                    final String tenantIdentifier,
+                    final Optional<UserContext> userContext,
+                    final SecurityContext securityContext) {
+      super();
+      this.accountNumbers = accountNumbers;
+      this.bookingCommand = bookingCommand;
+      this.lane = lane;
+      this.tenantIdentifier = tenantIdentifier;
+      this.userContext = userContext;
+      this.securityContext = securityContext;
+    }
+  }
+}
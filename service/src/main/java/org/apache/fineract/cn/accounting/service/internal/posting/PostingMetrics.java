@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.posting;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PostingMetrics implements PublicMetrics {
+
+  private final PostingExecutor postingExecutor;
+
+  @Autowired
+  public PostingMetrics(final PostingExecutor postingExecutor) {
+    super();
+    this.postingExecutor = postingExecutor;
+  }
+
+  @Override
+  public Collection<Metric<?>> metrics() {
+    final ArrayList<Metric<?>> metrics = new ArrayList<>(this.postingExecutor.getLaneCount());
+    for (int i = 0; i < this.postingExecutor.getLaneCount(); i++) {
+      metrics.add(new Metric<>("gauge.accounting.posting.lane." + i + ".depth", this.postingExecutor.getLaneDepth(i)));
+    }
+    return metrics;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Maintains thoth_account_daily_balances, one row per account and day holding opening and closing balance and the
+ * debit and credit turnover. Like the running balances of the account entries, rows follow booking order.
+ */
+@Repository
+public class AccountDailyBalanceRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public AccountDailyBalanceRepository() {
+    super();
+  }
+
+  /**
+   * Adds the given postings of one day to the row of the account, the opening balance is only taken if the row does
+   * not exist yet. Must be called with the account locked.
+   */
+  public void upsert(final Long accountId,
+                     final LocalDate balanceDate,
+                     final BigDecimal openingBalance,
+                     final BigDecimal closingBalance,
+                     final BigDecimal debitTurnover,
+                     final BigDecimal creditTurnover) {
+    this.entityManager.createNativeQuery(
+        "INSERT INTO thoth_account_daily_balances " +
+            "(account_id, balance_date, opening_balance, closing_balance, debit_turnover, credit_turnover) " +
+            "VALUES (:accountId, :balanceDate, :openingBalance, :closingBalance, :debitTurnover, :creditTurnover) " +
+            "ON CONFLICT (account_id, balance_date) DO UPDATE SET " +
+            "closing_balance = EXCLUDED.closing_balance, " +
+            "debit_turnover = thoth_account_daily_balances.debit_turnover + EXCLUDED.debit_turnover, " +
+            "credit_turnover = thoth_account_daily_balances.credit_turnover + EXCLUDED.credit_turnover")
+        .setParameter("accountId", accountId)
+        .setParameter("balanceDate", Date.valueOf(balanceDate))
+        .setParameter("openingBalance", openingBalance)
+        .setParameter("closingBalance", closingBalance)
+        .setParameter("debitTurnover", debitTurnover)
+        .setParameter("creditTurnover", creditTurnover)
+        .executeUpdate();
+  }
+
+  public void deleteByAccountId(final Long accountId) {
+    this.entityManager.createNativeQuery("DELETE FROM thoth_account_daily_balances WHERE account_id = :accountId")
+        .setParameter("accountId", accountId)
+        .executeUpdate();
+  }
+
+  public long findMaxAccountId() {
+    return ((Number) this.entityManager.createNativeQuery("SELECT COALESCE(MAX(id), 0) FROM thoth_accounts")
+        .getSingleResult()).longValue();
+  }
+
+  /**
+   * Rebuilds the rows of all accounts with an id in the given range from their account entries and returns the number
+   * of rows written. Accounts opened with a balance get a row of their creation day carrying it, unless entries are
+   * dated on or before that day. The accounts are locked in the order booking locks them, so no posting interleaves.
+   */
+  public int rebuild(final long fromAccountId, final long toAccountId) {
+    this.entityManager.createNativeQuery(
+        "SELECT id FROM thoth_accounts WHERE id BETWEEN :fromAccountId AND :toAccountId " +
+            "ORDER BY identifier FOR UPDATE")
+        .setParameter("fromAccountId", fromAccountId)
+        .setParameter("toAccountId", toAccountId)
+        .getResultList();
+
+    this.entityManager.createNativeQuery(
+        "DELETE FROM thoth_account_daily_balances WHERE account_id BETWEEN :fromAccountId AND :toAccountId")
+        .setParameter("fromAccountId", fromAccountId)
+        .setParameter("toAccountId", toAccountId)
+        .executeUpdate();
+
+    // the opening balance is the running balance of the first entry of the day less its signed amount
+    final int entryRows = this.entityManager.createNativeQuery(
+        "INSERT INTO thoth_account_daily_balances " +
+            "(account_id, balance_date, opening_balance, closing_balance, debit_turnover, credit_turnover) " +
+            "SELECT e.account_id, CAST(e.transaction_date AS DATE), " +
+            "(array_agg(e.balance - CASE WHEN (a.a_type IN ('ASSET', 'EXPENSE')) = (e.a_type = 'DEBIT') " +
+            "THEN e.amount ELSE -e.amount END ORDER BY e.booking_sequence))[1], " +
+            "(array_agg(e.balance ORDER BY e.booking_sequence DESC))[1], " +
+            "COALESCE(SUM(e.amount) FILTER (WHERE e.a_type = 'DEBIT'), 0), " +
+            "COALESCE(SUM(e.amount) FILTER (WHERE e.a_type = 'CREDIT'), 0) " +
+            "FROM thoth_account_entries e JOIN thoth_accounts a ON a.id = e.account_id " +
+            "WHERE e.account_id BETWEEN :fromAccountId AND :toAccountId " +
+            "GROUP BY e.account_id, CAST(e.transaction_date AS DATE)")
+        .setParameter("fromAccountId", fromAccountId)
+        .setParameter("toAccountId", toAccountId)
+        .executeUpdate();
+
+    final int openingRows = this.entityManager.createNativeQuery(
+        "INSERT INTO thoth_account_daily_balances " +
+            "(account_id, balance_date, opening_balance, closing_balance, debit_turnover, credit_turnover) " +
+            "SELECT a.id, CAST(a.created_on AS DATE), a.opening_balance, a.opening_balance, 0, 0 " +
+            "FROM thoth_accounts a " +
+            "WHERE a.id BETWEEN :fromAccountId AND :toAccountId AND a.opening_balance <> 0 " +
+            "AND NOT EXISTS (SELECT 1 FROM thoth_account_entries e WHERE e.account_id = a.id " +
+            "AND CAST(e.transaction_date AS DATE) <= CAST(a.created_on AS DATE))")
+        .setParameter("fromAccountId", fromAccountId)
+        .setParameter("toAccountId", toAccountId)
+        .executeUpdate();
+
+    return entryRows + openingRows;
+  }
+}
@@ -22,6 +22,8 @@ import java.time.LocalDateTime;
 import javax.persistence.*;
 
 import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @SuppressWarnings({"unused"})
 @Entity
@@ -29,7 +31,12 @@ import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
 public class AccountEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "thoth_accounts_id_gen")
+  @GenericGenerator(name = "thoth_accounts_id_gen", strategy = "org.apache.fineract.cn.accounting.service.internal.repository.PooledSequenceGenerator",
+      parameters = {
+          @Parameter(name = "sequence_name", value = "thoth_accounts_id_seq"),
+          @Parameter(name = "increment_size", value = "50")
+      })
   @Column(name = "id")
   private Long id;
   @Column(name = "a_type")
@@ -44,6 +51,8 @@ public class AccountEntity {
   private String signatureAuthorities;
   @Column(name = "balance")
   private Double balance;
+  @Column(name = "opening_balance")
+  private Double openingBalance;
   @OneToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "reference_account_id")
   private AccountEntity referenceAccount;
@@ -64,6 +73,11 @@ public class AccountEntity {
   private LocalDateTime lastModifiedOn;
   @Column(name = "last_modified_by")
   private String lastModifiedBy;
+  @Version
+  @Column(name = "version")
+  private Long version;
+  @Column(name = "booking_sequence")
+  private Long bookingSequence = 0L;
 
   public AccountEntity() {
     super();
@@ -125,6 +139,14 @@ public class AccountEntity {
     this.balance = balance;
   }
 
+  public Double getOpeningBalance() {
+    return this.openingBalance;
+  }
+
+  public void setOpeningBalance(final Double openingBalance) {
+    this.openingBalance = openingBalance;
+  }
+
   public AccountEntity getReferenceAccount() {
     return this.referenceAccount;
   }
@@ -189,6 +211,22 @@ public class AccountEntity {
     this.lastModifiedBy = lastModifiedBy;
   }
 
+  public Long getVersion() {
+    return this.version;
+  }
+
+  public void setVersion(final Long version) {
+    this.version = version;
+  }
+
+  public Long getBookingSequence() {
+    return this.bookingSequence;
+  }
+
+  public void setBookingSequence(final Long bookingSequence) {
+    this.bookingSequence = bookingSequence;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) return true;
@@ -24,13 +24,14 @@ import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
 import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @SuppressWarnings({"unused"})
 @Entity
@@ -38,7 +39,12 @@ import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
 public class AccountEntryEntity {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "thoth_account_entries_id_gen")
+	@GenericGenerator(name = "thoth_account_entries_id_gen", strategy = "org.apache.fineract.cn.accounting.service.internal.repository.PooledSequenceGenerator",
+			parameters = {
+					@Parameter(name = "sequence_name", value = "thoth_account_entries_id_seq"),
+					@Parameter(name = "increment_size", value = "50")
+			})
 	@Column(name = "id")
 	private Long id;
 	@ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -55,6 +61,8 @@ public class AccountEntryEntity {
 	private Double amount;
 	@Column(name = "balance")
 	private Double balance;
+	@Column(name = "booking_sequence")
+	private Long bookingSequence;
 	
 	public AccountEntryEntity() {
 		super();
@@ -115,4 +123,12 @@ public class AccountEntryEntity {
 	public void setBalance(final Double balance) {
 		this.balance = balance;
 	}
+	
+	public Long getBookingSequence() {
+		return this.bookingSequence;
+	}
+	
+	public void setBookingSequence(final Long bookingSequence) {
+		this.bookingSequence = bookingSequence;
+	}
 }
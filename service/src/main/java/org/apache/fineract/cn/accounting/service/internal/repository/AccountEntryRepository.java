@@ -18,11 +18,15 @@
  */
 package org.apache.fineract.cn.accounting.service.internal.repository;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import javax.persistence.Convert;
 import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -44,6 +48,83 @@ public interface AccountEntryRepository extends JpaRepository<AccountEntryEntity
                                                                                   final String message,
                                                                                   final Pageable pageable);
 
+  @Convert(converter = LocalDateTimeConverter.class)
+  Slice<AccountEntryEntity> findSliceByAccountAndTransactionDateBetween(final AccountEntity accountEntity,
+                                                                        final LocalDateTime dateFrom,
+                                                                        final LocalDateTime dateTo,
+                                                                        final Pageable pageable);
+
+  @Convert(converter = LocalDateTimeConverter.class)
+  Slice<AccountEntryEntity> findSliceByAccountAndTransactionDateBetweenAndMessageEquals(final AccountEntity accountEntity,
+                                                                                        final LocalDateTime dateFrom,
+                                                                                        final LocalDateTime dateTo,
+                                                                                        final String message,
+                                                                                        final Pageable pageable);
+
+  /**
+   * Returns the entries following the given position in ascending order, the pageable only limits the result, no
+   * count is run. The redundant lower bound on the transaction date lets the keyset predicate seek on the account date
+   * index instead of filtering the whole date range.
+   */
+  @Query("SELECT e FROM AccountEntryEntity e WHERE e.account = :accountEntity " +
+      "AND e.transactionDate BETWEEN :dateFrom AND :dateTo " +
+      "AND (:message IS NULL OR e.message = :message) " +
+      "AND e.transactionDate >= :afterDate " +
+      "AND (e.transactionDate > :afterDate OR (e.transactionDate = :afterDate AND e.id > :afterId)) " +
+      "ORDER BY e.transactionDate ASC, e.id ASC")
+  List<AccountEntryEntity> findAfter(@Param("accountEntity") final AccountEntity accountEntity,
+                                     @Param("dateFrom") final LocalDateTime dateFrom,
+                                     @Param("dateTo") final LocalDateTime dateTo,
+                                     @Param("message") final String message,
+                                     @Param("afterDate") final LocalDateTime afterDate,
+                                     @Param("afterId") final Long afterId,
+                                     final Pageable pageable);
+
+  /**
+   * Returns the entries preceding the given position in descending order, the pageable only limits the result, no
+   * count is run. The redundant upper bound on the transaction date lets the keyset predicate seek on the account date
+   * index instead of filtering the whole date range.
+   */
+  @Query("SELECT e FROM AccountEntryEntity e WHERE e.account = :accountEntity " +
+      "AND e.transactionDate BETWEEN :dateFrom AND :dateTo " +
+      "AND (:message IS NULL OR e.message = :message) " +
+      "AND e.transactionDate <= :beforeDate " +
+      "AND (e.transactionDate < :beforeDate OR (e.transactionDate = :beforeDate AND e.id < :beforeId)) " +
+      "ORDER BY e.transactionDate DESC, e.id DESC")
+  List<AccountEntryEntity> findBefore(@Param("accountEntity") final AccountEntity accountEntity,
+                                      @Param("dateFrom") final LocalDateTime dateFrom,
+                                      @Param("dateTo") final LocalDateTime dateTo,
+                                      @Param("message") final String message,
+                                      @Param("beforeDate") final LocalDateTime beforeDate,
+                                      @Param("beforeId") final Long beforeId,
+                                      final Pageable pageable);
+
+  /**
+   * Returns the latest entry at or before the given date, the pageable only limits the result to one entry, no count
+   * is run. The latest date is looked up first, so the entries of that date are the only ones sorted by booking
+   * sequence.
+   */
+  @Query("SELECT e FROM AccountEntryEntity e WHERE e.account = :accountEntity " +
+      "AND e.transactionDate = (SELECT MAX(l.transactionDate) FROM AccountEntryEntity l " +
+      "WHERE l.account = :accountEntity AND l.transactionDate <= :asOf) " +
+      "ORDER BY e.bookingSequence DESC")
+  List<AccountEntryEntity> findLatest(@Param("accountEntity") final AccountEntity accountEntity,
+                                      @Param("asOf") final LocalDateTime asOf,
+                                      final Pageable pageable);
+
+  /**
+   * Returns identifier and balance as of the given date for each of the given accounts, one index seek per account.
+   * Accounts without an entry at or before the date have the balance they were opened with.
+   */
+  @Query(value = "SELECT a.identifier, COALESCE(e.balance, a.opening_balance) FROM thoth_accounts a " +
+      "LEFT JOIN LATERAL (SELECT balance FROM thoth_account_entries " +
+      "WHERE account_id = a.id AND transaction_date = (SELECT MAX(transaction_date) FROM thoth_account_entries " +
+      "WHERE account_id = a.id AND transaction_date <= :asOf) " +
+      "ORDER BY booking_sequence DESC LIMIT 1) e ON TRUE " +
+      "WHERE a.identifier IN :identifiers", nativeQuery = true)
+  List<Object[]> findBalancesAsOf(@Param("identifiers") final Collection<String> identifiers,
+                                  @Param("asOf") final Timestamp asOf);
+
 
   @Query("SELECT CASE WHEN count(a) > 0 THEN true ELSE false END FROM AccountEntryEntity a where a.account = :accountEntity")
   Boolean existsByAccount(@Param("accountEntity") final AccountEntity accountEntity);
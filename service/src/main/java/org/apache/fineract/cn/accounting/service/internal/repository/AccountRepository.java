@@ -20,14 +20,18 @@ package org.apache.fineract.cn.accounting.service.internal.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Stream;
+import javax.persistence.LockModeType;
 
 @Repository
 public interface AccountRepository extends JpaRepository<AccountEntity, Long>, JpaSpecificationExecutor<AccountEntity> {
@@ -36,8 +40,19 @@ public interface AccountRepository extends JpaRepository<AccountEntity, Long>, J
 
   Page<AccountEntity> findByLedger(final LedgerEntity ledgerEntity, final Pageable pageable);
 
+  Slice<AccountEntity> findSliceByLedger(final LedgerEntity ledgerEntity, final Pageable pageable);
+
   AccountEntity findByIdentifier(final String identifier);
 
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT a FROM AccountEntity a WHERE a.identifier IN :identifiers ORDER BY a.identifier")
+  List<AccountEntity> lockByIdentifierIn(@Param("identifiers") final Collection<String> identifiers);
+
+  @Query("SELECT new org.apache.fineract.cn.accounting.service.internal.repository.AccountProjection("
+      + "a.identifier, a.state, a.type, l.identifier) "
+      + "FROM AccountEntity a JOIN a.ledger l WHERE a.identifier IN :identifiers")
+  List<AccountProjection> findProjectionsByIdentifierIn(@Param("identifiers") final Collection<String> identifiers);
+
   @Query("SELECT CASE WHEN count(a) > 0 THEN true ELSE false END FROM AccountEntity a where a.referenceAccount = :accountEntity")
   Boolean existsByReference(@Param("accountEntity") final AccountEntity accountEntity);
 
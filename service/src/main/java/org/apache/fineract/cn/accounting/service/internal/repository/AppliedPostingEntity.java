@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.repository;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
+
+@SuppressWarnings("unused")
+@Entity
+@Table(name = "thoth_applied_postings")
+public class AppliedPostingEntity {
+
+  @Id
+  @Column(name = "transaction_identifier")
+  private String transactionIdentifier;
+  @Column(name = "applied_on")
+  @Convert(converter = LocalDateTimeConverter.class)
+  private LocalDateTime appliedOn;
+
+  public AppliedPostingEntity() {
+    super();
+  }
+
+  public String getTransactionIdentifier() {
+    return this.transactionIdentifier;
+  }
+
+  public void setTransactionIdentifier(final String transactionIdentifier) {
+    this.transactionIdentifier = transactionIdentifier;
+  }
+
+  public LocalDateTime getAppliedOn() {
+    return this.appliedOn;
+  }
+
+  public void setAppliedOn(final LocalDateTime appliedOn) {
+    this.appliedOn = appliedOn;
+  }
+}
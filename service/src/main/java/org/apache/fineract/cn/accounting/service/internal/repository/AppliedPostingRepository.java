@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AppliedPostingRepository extends JpaRepository<AppliedPostingEntity, String> {
+
+  /**
+   * Returns 1 if the posting was recorded, 0 if it has been applied before. A concurrent transaction recording the
+   * same posting blocks this one until it completed.
+   */
+  @Modifying
+  @Query(value = "INSERT INTO thoth_applied_postings (transaction_identifier, applied_on) " +
+      "VALUES (:transactionIdentifier, now() AT TIME ZONE 'UTC') " +
+      "ON CONFLICT (transaction_identifier) DO NOTHING",
+      nativeQuery = true)
+  int insertIfAbsent(@Param("transactionIdentifier") final String transactionIdentifier);
+}
@@ -24,12 +24,13 @@ import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @SuppressWarnings("unused")
 @Entity
@@ -37,7 +38,12 @@ import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
 public class CommandEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "thoth_commands_id_gen")
+  @GenericGenerator(name = "thoth_commands_id_gen", strategy = "org.apache.fineract.cn.accounting.service.internal.repository.PooledSequenceGenerator",
+      parameters = {
+          @Parameter(name = "sequence_name", value = "thoth_commands_id_seq"),
+          @Parameter(name = "increment_size", value = "50")
+      })
   @Column(name = "id")
   private Long id;
   @OneToOne(fetch = FetchType.LAZY, optional = false)
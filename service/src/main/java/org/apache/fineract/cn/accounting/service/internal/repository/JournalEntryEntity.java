@@ -28,13 +28,19 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @SuppressWarnings({"unused", "WeakerAccess"})
-@Table(name = "thoth_journal_entries")
+@Table(name = "thoth_sharded_journal_entries")
 public class JournalEntryEntity {
 
+  // Each day is spread over this many partitions, changing it requires rewriting all journal entries.
+  public static final int SHARDS = 16;
+
   @SuppressWarnings("DefaultAnnotationParam")
   @PartitionKey(value = 0)
   @Column(name = "date_bucket")
   private String dateBucket;
+  @PartitionKey(value = 1)
+  @Column(name = "shard")
+  private Integer shard;
   @SuppressWarnings("DefaultAnnotationParam")
   @ClusteringColumn(value = 0)
   @Column(name = "transaction_identifier")
@@ -74,6 +80,14 @@ public class JournalEntryEntity {
     this.dateBucket = dateBucket;
   }
 
+  public Integer getShard() {
+    return this.shard;
+  }
+
+  public void setShard(final Integer shard) {
+    this.shard = shard;
+  }
+
   public String getTransactionIdentifier() {
     return this.transactionIdentifier;
   }
@@ -161,4 +175,8 @@ public class JournalEntryEntity {
   public void setCreatedBy(final String createdBy) {
     this.createdBy = createdBy;
   }
+
+  public static int shard(final String transactionIdentifier) {
+    return Math.floorMod(transactionIdentifier.hashCode(), SHARDS);
+  }
 }
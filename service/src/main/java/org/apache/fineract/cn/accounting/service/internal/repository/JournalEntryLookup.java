@@ -31,6 +31,8 @@ public class JournalEntryLookup {
   private String transactionIdentifier;
   @Column(name = "date_bucket")
   private String dateBucket;
+  @Column(name = "shard")
+  private Integer shard;
 
   public JournalEntryLookup() {
     super();
@@ -51,4 +53,12 @@ public class JournalEntryLookup {
   public void setDateBucket(final String dateBucket) {
     this.dateBucket = dateBucket;
   }
+
+  public Integer getShard() {
+    return this.shard;
+  }
+
+  public void setShard(final Integer shard) {
+    this.shard = shard;
+  }
 }
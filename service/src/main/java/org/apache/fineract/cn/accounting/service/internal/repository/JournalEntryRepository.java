@@ -18,83 +18,577 @@
  */
 package org.apache.fineract.cn.accounting.service.internal.repository;
 
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.PagingState;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
-import com.datastax.driver.core.SimpleStatement;
 import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.PagingStateException;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.mapping.Mapper;
 import com.datastax.driver.mapping.Result;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 import org.apache.fineract.cn.cassandra.core.CassandraSessionProvider;
 import org.apache.fineract.cn.cassandra.core.TenantAwareCassandraMapperProvider;
-import org.apache.fineract.cn.cassandra.core.TenantAwareEntityTemplate;
 import org.apache.fineract.cn.lang.DateConverter;
 import org.apache.fineract.cn.lang.DateRange;
+import org.apache.fineract.cn.lang.TenantContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 @SuppressWarnings({"unused"})
 @Repository
 public class JournalEntryRepository {
 
+  // Multi partition batches are checked against batch_size_fail_threshold_in_kb by Cassandra, so large
+  // batches are split into chunks, which are executed concurrently.
+  private static final int BATCH_CHUNK_SIZE = 50;
+  private static final int MIGRATION_PAGE_SIZE = 1000;
+
+  private static final String SELECT_JOURNAL_ENTRIES_BY_PARTITION = QueryBuilder
+      .select().all()
+      .from("thoth_sharded_journal_entries")
+      .where(QueryBuilder.eq("date_bucket", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.eq("shard", QueryBuilder.bindMarker()))
+      .getQueryString();
+  // state is no key, filtering is restricted to a single partition
+  private static final String SELECT_PENDING_JOURNAL_ENTRIES_BY_PARTITION = QueryBuilder
+      .select().all()
+      .from("thoth_sharded_journal_entries")
+      .where(QueryBuilder.eq("date_bucket", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.eq("shard", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.eq("state", QueryBuilder.bindMarker()))
+      .allowFiltering()
+      .getQueryString();
+  private static final String SELECT_JOURNAL_ENTRY = QueryBuilder
+      .select().all()
+      .from("thoth_sharded_journal_entries")
+      .where(QueryBuilder.eq("date_bucket", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.eq("shard", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.eq("transaction_identifier", QueryBuilder.bindMarker()))
+      .getQueryString();
+  private static final String SELECT_JOURNAL_ENTRY_LOOKUP = QueryBuilder
+      .select().all()
+      .from("thoth_journal_entry_lookup")
+      .where(QueryBuilder.eq("transaction_identifier", QueryBuilder.bindMarker()))
+      .getQueryString();
+  private static final String SELECT_TRANSACTION_IDENTIFIERS = QueryBuilder
+      .select("transaction_identifier")
+      .from("thoth_journal_entry_lookup")
+      .where(QueryBuilder.in("transaction_identifier", QueryBuilder.bindMarker()))
+      .getQueryString();
+  private static final String SELECT_JOURNAL_ENTRIES_BY_TRANSACTION_IDENTIFIERS = QueryBuilder
+      .select().all()
+      .from("thoth_sharded_journal_entries")
+      .where(QueryBuilder.eq("date_bucket", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.eq("shard", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.in("transaction_identifier", QueryBuilder.bindMarker()))
+      .getQueryString();
+  private static final String SELECT_UNSHARDED_JOURNAL_ENTRIES = QueryBuilder
+      .select().all()
+      .from("thoth_journal_entries")
+      .getQueryString();
+  private static final String INSERT_JOURNAL_ENTRY_BY_ACCOUNT = QueryBuilder
+      .insertInto("thoth_journal_entries_by_account")
+      .value("account_number", QueryBuilder.bindMarker())
+      .value("month", QueryBuilder.bindMarker())
+      .value("transaction_date", QueryBuilder.bindMarker())
+      .value("transaction_identifier", QueryBuilder.bindMarker())
+      .value("date_bucket", QueryBuilder.bindMarker())
+      .value("shard", QueryBuilder.bindMarker())
+      .getQueryString();
+  private static final String SELECT_JOURNAL_ENTRIES_BY_ACCOUNT = QueryBuilder
+      .select("transaction_identifier", "date_bucket", "shard")
+      .from("thoth_journal_entries_by_account")
+      .where(QueryBuilder.eq("account_number", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.in("month", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.gte("transaction_date", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.lte("transaction_date", QueryBuilder.bindMarker()))
+      .getQueryString();
+  private static final String SELECT_JOURNAL_ENTRIES_BY_ACCOUNT_MONTH = QueryBuilder
+      .select("transaction_identifier", "date_bucket", "shard")
+      .from("thoth_journal_entries_by_account")
+      .where(QueryBuilder.eq("account_number", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.eq("month", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.gte("transaction_date", QueryBuilder.bindMarker()))
+      .and(QueryBuilder.lte("transaction_date", QueryBuilder.bindMarker()))
+      .getQueryString();
+
   private final CassandraSessionProvider cassandraSessionProvider;
   private final TenantAwareCassandraMapperProvider tenantAwareCassandraMapperProvider;
-  private final TenantAwareEntityTemplate tenantAwareEntityTemplate;
+  private final PreparedStatementCache preparedStatementCache;
+  private final TransactionIdentifierFilter transactionIdentifierFilter;
+  private final Integer fanOutConcurrency;
 
   @Autowired
   public JournalEntryRepository(final CassandraSessionProvider cassandraSessionProvider,
                                 final TenantAwareCassandraMapperProvider tenantAwareCassandraMapperProvider,
-                                final TenantAwareEntityTemplate tenantAwareEntityTemplate) {
+                                final PreparedStatementCache preparedStatementCache,
+                                final TransactionIdentifierFilter transactionIdentifierFilter,
+                                @Value("${accounting.journal.fanOutConcurrency:8}") final Integer fanOutConcurrency) {
     super();
     this.cassandraSessionProvider = cassandraSessionProvider;
     this.tenantAwareCassandraMapperProvider = tenantAwareCassandraMapperProvider;
-    this.tenantAwareEntityTemplate = tenantAwareEntityTemplate;
+    this.preparedStatementCache = preparedStatementCache;
+    this.transactionIdentifierFilter = transactionIdentifierFilter;
+    this.fanOutConcurrency = fanOutConcurrency;
   }
 
   public void saveJournalEntry(final JournalEntryEntity journalEntryEntity) {
-    this.tenantAwareEntityTemplate.save(journalEntryEntity);
+    try {
+      this.saveJournalEntryAsync(journalEntryEntity).join();
+    } catch (final CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
 
-    final JournalEntryLookup journalEntryLookup = new JournalEntryLookup();
-    journalEntryLookup.setTransactionIdentifier(journalEntryEntity.getTransactionIdentifier());
-    journalEntryLookup.setDateBucket(journalEntryEntity.getDateBucket());
-    this.tenantAwareEntityTemplate.save(journalEntryLookup);
+  /**
+   * Writes the journal entry, its lookup and its account index rows concurrently, the returned future completes
+   * once all are written.
+   */
+  public CompletableFuture<Void> saveJournalEntryAsync(final JournalEntryEntity journalEntryEntity) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+
+    final JournalEntryLookup journalEntryLookup = JournalEntryRepository.journalEntryLookup(journalEntryEntity);
+
+    final CompletableFuture<Void> journalEntryFuture = JournalEntryRepository.toCompletableFuture(
+        tenantSession.executeAsync(
+            this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryEntity.class).saveQuery(journalEntryEntity)));
+    final CompletableFuture<Void> journalEntryLookupFuture = JournalEntryRepository.toCompletableFuture(
+        tenantSession.executeAsync(
+            this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryLookup.class).saveQuery(journalEntryLookup)));
+
+    final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    futures.add(journalEntryFuture);
+    futures.add(journalEntryLookupFuture);
+    this.journalEntryByAccountStatements(journalEntryEntity).forEach(statement ->
+        futures.add(JournalEntryRepository.toCompletableFuture(tenantSession.executeAsync(statement))));
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+        .thenRun(() -> {
+          // released entries are known already, putting them again would only count against the filter's capacity
+          if (JournalEntry.State.PENDING.name().equals(journalEntryEntity.getState())) {
+            this.transactionIdentifierFilter.put(tenantIdentifier, journalEntryEntity.getTransactionIdentifier());
+          }
+        });
+  }
+
+  public void saveJournalEntries(final List<JournalEntryEntity> journalEntryEntities) {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+    final Mapper<JournalEntryEntity> journalEntryMapper =
+        this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryEntity.class);
+    final Mapper<JournalEntryLookup> journalEntryLookupMapper =
+        this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryLookup.class);
+
+    final List<ResultSetFuture> futures = new ArrayList<>();
+    for (int i = 0; i < journalEntryEntities.size(); i += BATCH_CHUNK_SIZE) {
+      final BatchStatement batchStatement = new BatchStatement(BatchStatement.Type.LOGGED);
+      journalEntryEntities.subList(i, Math.min(i + BATCH_CHUNK_SIZE, journalEntryEntities.size()))
+          .forEach(journalEntryEntity -> {
+            batchStatement.add(journalEntryMapper.saveQuery(journalEntryEntity));
+
+            batchStatement.add(
+                journalEntryLookupMapper.saveQuery(JournalEntryRepository.journalEntryLookup(journalEntryEntity)));
+            this.journalEntryByAccountStatements(journalEntryEntity).forEach(batchStatement::add);
+          });
+      futures.add(tenantSession.executeAsync(batchStatement));
+    }
+    futures.forEach(ResultSetFuture::getUninterruptibly);
+    journalEntryEntities
+        .stream()
+        .filter(journalEntryEntity -> JournalEntry.State.PENDING.name().equals(journalEntryEntity.getState()))
+        .forEach(journalEntryEntity ->
+            this.transactionIdentifierFilter.put(journalEntryEntity.getTransactionIdentifier()));
+  }
+
+  public Set<String> findExistingTransactionIdentifiers(final Collection<String> transactionIdentifiers) {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+    final List<String> identifiers = new ArrayList<>(transactionIdentifiers);
+
+    final Set<String> existingTransactionIdentifiers = new HashSet<>();
+    for (int i = 0; i < identifiers.size(); i += BATCH_CHUNK_SIZE) {
+      final List<String> chunk = identifiers.subList(i, Math.min(i + BATCH_CHUNK_SIZE, identifiers.size()));
+      final ResultSet resultSet = tenantSession.execute(
+          this.preparedStatementCache.bind(SELECT_TRANSACTION_IDENTIFIERS, new ArrayList<>(chunk)));
+      for (final Row row : resultSet) {
+        existingTransactionIdentifiers.add(row.getString("transaction_identifier"));
+      }
+    }
+    return existingTransactionIdentifiers;
   }
 
+  /**
+   * Reads every partition, date bucket and shard, of the range with its own query, so the partitions are read in
+   * parallel instead of serialized on a single coordinator, and returns the entries ordered by transaction date.
+   */
   public List<JournalEntryEntity> fetchJournalEntries(final DateRange range) {
+    final List<Statement> statements = new ArrayList<>();
+    range.stream()
+        .map(DateConverter::toIsoString)
+        .forEach(dateBucket -> {
+          for (int shard = 0; shard < JournalEntryEntity.SHARDS; shard++) {
+            statements.add(this.preparedStatementCache.bind(SELECT_JOURNAL_ENTRIES_BY_PARTITION, dateBucket, shard));
+          }
+        });
+
+    return this.fanOut(statements);
+  }
+
+  /**
+   * Reads the pending entries of all partitions of the date buckets in parallel.
+   */
+  public List<JournalEntryEntity> findPendingJournalEntries(final Collection<String> dateBuckets) {
+    final List<Statement> statements = new ArrayList<>();
+    dateBuckets.forEach(dateBucket -> {
+      for (int shard = 0; shard < JournalEntryEntity.SHARDS; shard++) {
+        statements.add(this.preparedStatementCache.bind(SELECT_PENDING_JOURNAL_ENTRIES_BY_PARTITION,
+            dateBucket, shard, JournalEntry.State.PENDING.name()));
+      }
+    });
+
+    return this.fanOut(statements);
+  }
+
+  /**
+   * Pages through the partitions of the range in date bucket and shard order, using Cassandra's paging state within
+   * a partition. The cursor encodes the current partition and paging state, so no more than one page is read into
+   * memory.
+   *
+   * @throws IllegalArgumentException if the cursor is malformed or does not belong to the range
+   */
+  public JournalEntryChunk fetchJournalEntries(final DateRange range, final String cursor, final int pageSize) {
     final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+    final Mapper<JournalEntryEntity> mapper = this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryEntity.class);
 
     final List<String> datesInBetweenRange
         = range.stream()
         .map(DateConverter::toIsoString)
         .collect(Collectors.toList());
+    final int partitionCount = datesInBetweenRange.size() * JournalEntryEntity.SHARDS;
+
+    int partitionIndex = 0;
+    PagingState pagingState = null;
+    if (cursor != null) {
+      final int bucketIndex;
+      final int shard;
+      try {
+        final String[] decodedCursor =
+            new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+        bucketIndex = datesInBetweenRange.indexOf(decodedCursor[0]);
+        shard = Integer.parseInt(decodedCursor[1]);
+        if (!decodedCursor[2].isEmpty()) {
+          pagingState = PagingState.fromString(decodedCursor[2]);
+        }
+      } catch (final RuntimeException ex) {
+        throw new IllegalArgumentException("Invalid cursor " + cursor + ".", ex);
+      }
+      if (bucketIndex < 0 || shard < 0 || shard >= JournalEntryEntity.SHARDS) {
+        throw new IllegalArgumentException("Cursor " + cursor + " does not belong to the date range.");
+      }
+      partitionIndex = bucketIndex * JournalEntryEntity.SHARDS + shard;
+    }
 
-    final Statement stmt = new SimpleStatement(
-        QueryBuilder
-            .select().all()
-            .from("thoth_journal_entries")
-            .where(QueryBuilder.in("date_bucket", datesInBetweenRange)).getQueryString(),
-        datesInBetweenRange.toArray()
-    );
+    final List<JournalEntryEntity> journalEntryEntities = new ArrayList<>(pageSize);
+    while (journalEntryEntities.size() < pageSize && partitionIndex < partitionCount) {
+      final Statement statement = this.preparedStatementCache.bind(SELECT_JOURNAL_ENTRIES_BY_PARTITION,
+          datesInBetweenRange.get(partitionIndex / JournalEntryEntity.SHARDS),
+          partitionIndex % JournalEntryEntity.SHARDS);
+      statement.setFetchSize(pageSize - journalEntryEntities.size());
+      if (pagingState != null) {
+        statement.setPagingState(pagingState);
+      }
 
-    final ResultSet resultSet = tenantSession.execute(stmt);
+      final ResultSet resultSet;
+      try {
+        resultSet = tenantSession.execute(statement);
+      } catch (final PagingStateException ex) {
+        throw new IllegalArgumentException("Invalid cursor " + cursor + ".", ex);
+      }
+      // only the rows of the current page are consumed, iterating further would fetch the next page
+      final int available = resultSet.getAvailableWithoutFetching();
+      final Result<JournalEntryEntity> result = mapper.map(resultSet);
+      for (int i = 0; i < available; i++) {
+        journalEntryEntities.add(result.one());
+      }
 
-    final Mapper<JournalEntryEntity> mapper = this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryEntity.class);
-    final Result<JournalEntryEntity> journalEntryEntities = mapper.map(resultSet);
-    return journalEntryEntities.all();
+      pagingState = resultSet.getExecutionInfo().getPagingState();
+      if (pagingState == null) {
+        partitionIndex++;
+      }
+    }
+
+    if (partitionIndex >= partitionCount) {
+      return new JournalEntryChunk(journalEntryEntities, null);
+    }
+    final String nextCursor = datesInBetweenRange.get(partitionIndex / JournalEntryEntity.SHARDS)
+        + ":" + (partitionIndex % JournalEntryEntity.SHARDS)
+        + ":" + (pagingState != null ? pagingState.toString() : "");
+    return new JournalEntryChunk(journalEntryEntities,
+        Base64.getUrlEncoder().withoutPadding().encodeToString(nextCursor.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Reads only the account index partitions of the months in range, and the entries referenced by them.
+   */
+  public List<JournalEntryEntity> fetchJournalEntries(final DateRange range, final String accountNumber) {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+
+    final ResultSet indexResultSet = tenantSession.execute(
+        this.preparedStatementCache.bind(SELECT_JOURNAL_ENTRIES_BY_ACCOUNT,
+            accountNumber, JournalEntryRepository.months(range), range.getStartDateTime(), range.getEndDateTime()));
+    return this.fetchIndexedJournalEntries(indexResultSet);
+  }
+
+  /**
+   * Pages through the account index partitions of the months in range in month order, using Cassandra's paging
+   * state within a month, and reads the entries referenced by the page. The cursor encodes the current month and
+   * paging state.
+   *
+   * @throws IllegalArgumentException if the cursor is malformed or does not belong to the range
+   */
+  public JournalEntryChunk fetchJournalEntries(final DateRange range,
+                                               final String accountNumber,
+                                               final String cursor,
+                                               final int pageSize) {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+
+    final List<String> monthsInBetweenRange = JournalEntryRepository.months(range);
+
+    int monthIndex = 0;
+    PagingState pagingState = null;
+    if (cursor != null) {
+      try {
+        final String[] decodedCursor =
+            new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+        monthIndex = monthsInBetweenRange.indexOf(decodedCursor[0]);
+        if (!decodedCursor[1].isEmpty()) {
+          pagingState = PagingState.fromString(decodedCursor[1]);
+        }
+      } catch (final RuntimeException ex) {
+        throw new IllegalArgumentException("Invalid cursor " + cursor + ".", ex);
+      }
+      if (monthIndex < 0) {
+        throw new IllegalArgumentException("Cursor " + cursor + " does not belong to the date range.");
+      }
+    }
+
+    final List<Row> indexRows = new ArrayList<>(pageSize);
+    while (indexRows.size() < pageSize && monthIndex < monthsInBetweenRange.size()) {
+      final Statement statement = this.preparedStatementCache.bind(SELECT_JOURNAL_ENTRIES_BY_ACCOUNT_MONTH,
+          accountNumber, monthsInBetweenRange.get(monthIndex), range.getStartDateTime(), range.getEndDateTime());
+      statement.setFetchSize(pageSize - indexRows.size());
+      if (pagingState != null) {
+        statement.setPagingState(pagingState);
+      }
+
+      final ResultSet resultSet;
+      try {
+        resultSet = tenantSession.execute(statement);
+      } catch (final PagingStateException ex) {
+        throw new IllegalArgumentException("Invalid cursor " + cursor + ".", ex);
+      }
+      // only the rows of the current page are consumed, iterating further would fetch the next page
+      final int available = resultSet.getAvailableWithoutFetching();
+      for (int i = 0; i < available; i++) {
+        indexRows.add(resultSet.one());
+      }
+
+      pagingState = resultSet.getExecutionInfo().getPagingState();
+      if (pagingState == null) {
+        monthIndex++;
+      }
+    }
+
+    final List<JournalEntryEntity> journalEntryEntities = this.fetchIndexedJournalEntries(indexRows);
+    if (monthIndex >= monthsInBetweenRange.size()) {
+      return new JournalEntryChunk(journalEntryEntities, null);
+    }
+    final String nextCursor = monthsInBetweenRange.get(monthIndex)
+        + ":" + (pagingState != null ? pagingState.toString() : "");
+    return new JournalEntryChunk(journalEntryEntities,
+        Base64.getUrlEncoder().withoutPadding().encodeToString(nextCursor.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Reads the entries referenced by the account index rows, grouped by partition.
+   */
+  private List<JournalEntryEntity> fetchIndexedJournalEntries(final Iterable<Row> indexRows) {
+    final Map<String, Map<Integer, List<String>>> transactionIdentifiersByPartition = new HashMap<>();
+    for (final Row row : indexRows) {
+      final String transactionIdentifier = row.getString("transaction_identifier");
+      transactionIdentifiersByPartition
+          .computeIfAbsent(row.getString("date_bucket"), dateBucket -> new HashMap<>())
+          .computeIfAbsent(JournalEntryRepository.shard(row, transactionIdentifier), shard -> new ArrayList<>())
+          .add(transactionIdentifier);
+    }
+
+    final List<Statement> statements = new ArrayList<>();
+    transactionIdentifiersByPartition.forEach((dateBucket, transactionIdentifiersByShard) ->
+        transactionIdentifiersByShard.forEach((shard, transactionIdentifiers) -> {
+          for (int i = 0; i < transactionIdentifiers.size(); i += BATCH_CHUNK_SIZE) {
+            final List<String> chunk = new ArrayList<>(
+                transactionIdentifiers.subList(i, Math.min(i + BATCH_CHUNK_SIZE, transactionIdentifiers.size())));
+            statements.add(this.preparedStatementCache.bind(SELECT_JOURNAL_ENTRIES_BY_TRANSACTION_IDENTIFIERS,
+                dateBucket, shard, chunk));
+          }
+        }));
+    return this.fanOut(statements);
+  }
+
+  /**
+   * Copies all journal entries of the unsharded table into their sharded partitions, rewriting their lookup and
+   * account index rows, returns the number of entries migrated. Every write is an upsert, so an interrupted copy can
+   * be run again; when resuming, entries already copied are kept, as they may have been released since.
+   */
+  public long migrateJournalEntriesToShards(final boolean resume) {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+    final Statement statement = this.preparedStatementCache.bind(SELECT_UNSHARDED_JOURNAL_ENTRIES);
+    statement.setFetchSize(MIGRATION_PAGE_SIZE);
+
+    final Mapper<JournalEntryEntity> journalEntryMapper =
+        this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryEntity.class);
+    final Mapper<JournalEntryLookup> journalEntryLookupMapper =
+        this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryLookup.class);
+    final List<ResultSetFuture> futures = new ArrayList<>();
+    long count = 0L;
+    for (final JournalEntryEntity journalEntryEntity : journalEntryMapper.map(tenantSession.execute(statement))) {
+      journalEntryEntity.setShard(JournalEntryEntity.shard(journalEntryEntity.getTransactionIdentifier()));
+      if (!resume || tenantSession.execute(this.preparedStatementCache.bind(SELECT_JOURNAL_ENTRY,
+          journalEntryEntity.getDateBucket(), journalEntryEntity.getShard(),
+          journalEntryEntity.getTransactionIdentifier())).one() == null) {
+        futures.add(tenantSession.executeAsync(journalEntryMapper.saveQuery(journalEntryEntity)));
+      }
+      futures.add(tenantSession.executeAsync(
+          journalEntryLookupMapper.saveQuery(JournalEntryRepository.journalEntryLookup(journalEntryEntity))));
+      this.journalEntryByAccountStatements(journalEntryEntity).forEach(indexStatement ->
+          futures.add(tenantSession.executeAsync(indexStatement)));
+      count++;
+      // bounds the writes in flight
+      if (futures.size() >= MIGRATION_PAGE_SIZE) {
+        futures.forEach(ResultSetFuture::getUninterruptibly);
+        futures.clear();
+      }
+    }
+    futures.forEach(ResultSetFuture::getUninterruptibly);
+    return count;
   }
 
   public Optional<JournalEntryEntity> findJournalEntry(final String transactionIdentifier) {
-    final Optional<JournalEntryLookup> optionalJournalEntryLookup = this.tenantAwareEntityTemplate.findById(JournalEntryLookup.class, transactionIdentifier);
-    if (optionalJournalEntryLookup.isPresent()) {
-      final JournalEntryLookup journalEntryLookup = optionalJournalEntryLookup.get();
-      final List<JournalEntryEntity> journalEntryEntities = this.tenantAwareEntityTemplate.fetchByKeys(JournalEntryEntity.class, journalEntryLookup.getDateBucket(),
-          journalEntryLookup.getTransactionIdentifier());
-      return Optional.of(journalEntryEntities.get(0));
-    } else {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+
+    final Row journalEntryLookup = tenantSession.execute(
+        this.preparedStatementCache.bind(SELECT_JOURNAL_ENTRY_LOOKUP, transactionIdentifier)).one();
+    if (journalEntryLookup == null) {
       return Optional.empty();
     }
+
+    final ResultSet resultSet = tenantSession.execute(
+        this.preparedStatementCache.bind(SELECT_JOURNAL_ENTRY, journalEntryLookup.getString("date_bucket"),
+            JournalEntryRepository.shard(journalEntryLookup, transactionIdentifier), transactionIdentifier));
+    final Mapper<JournalEntryEntity> mapper = this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryEntity.class);
+    // the lookup is written concurrently with the entry, so it may exist before the entry does
+    return Optional.ofNullable(mapper.map(resultSet).one());
+  }
+
+  private List<Statement> journalEntryByAccountStatements(final JournalEntryEntity journalEntryEntity) {
+    final Set<String> accountNumbers = new HashSet<>();
+    journalEntryEntity.getDebtors().forEach(debtor -> accountNumbers.add(debtor.getAccountNumber()));
+    journalEntryEntity.getCreditors().forEach(creditor -> accountNumbers.add(creditor.getAccountNumber()));
+
+    final String month = JournalEntryRepository.month(journalEntryEntity.getDateBucket());
+    return accountNumbers
+        .stream()
+        .map(accountNumber -> this.preparedStatementCache.bind(INSERT_JOURNAL_ENTRY_BY_ACCOUNT,
+            accountNumber, month, journalEntryEntity.getTransactionDate(),
+            journalEntryEntity.getTransactionIdentifier(), journalEntryEntity.getDateBucket(),
+            journalEntryEntity.getShard()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Executes the statements asynchronously, with at most fanOutConcurrency of them in flight, and returns the
+   * entries of all statements ordered by transaction date. Partitions are clustered by transaction identifier, so
+   * their rows are collected and sorted once.
+   */
+  private List<JournalEntryEntity> fanOut(final List<Statement> statements) {
+    final Session tenantSession = this.cassandraSessionProvider.getTenantSession();
+    final Semaphore inFlight = new Semaphore(this.fanOutConcurrency);
+
+    final List<ResultSetFuture> futures = new ArrayList<>(statements.size());
+    for (final Statement statement : statements) {
+      inFlight.acquireUninterruptibly();
+      final ResultSetFuture resultSetFuture = tenantSession.executeAsync(statement);
+      resultSetFuture.addListener(inFlight::release, Runnable::run);
+      futures.add(resultSetFuture);
+    }
+
+    // rows are mapped on the calling thread, further pages of a partition must not be fetched on driver threads
+    final Mapper<JournalEntryEntity> mapper = this.tenantAwareCassandraMapperProvider.getMapper(JournalEntryEntity.class);
+    final List<JournalEntryEntity> journalEntryEntities = new ArrayList<>();
+    for (final ResultSetFuture resultSetFuture : futures) {
+      journalEntryEntities.addAll(mapper.map(resultSetFuture.getUninterruptibly()).all());
+    }
+    journalEntryEntities.sort(Comparator.comparing(JournalEntryEntity::getTransactionDate));
+    return journalEntryEntities;
+  }
+
+  private static JournalEntryLookup journalEntryLookup(final JournalEntryEntity journalEntryEntity) {
+    final JournalEntryLookup journalEntryLookup = new JournalEntryLookup();
+    journalEntryLookup.setTransactionIdentifier(journalEntryEntity.getTransactionIdentifier());
+    journalEntryLookup.setDateBucket(journalEntryEntity.getDateBucket());
+    journalEntryLookup.setShard(journalEntryEntity.getShard());
+    return journalEntryLookup;
+  }
+
+  private static int shard(final Row row, final String transactionIdentifier) {
+    // rows written before sharding have no shard, until the migration has rewritten them
+    return row.isNull("shard") ? JournalEntryEntity.shard(transactionIdentifier) : row.getInt("shard");
+  }
+
+  private static List<String> months(final DateRange range) {
+    return range.stream()
+        .map(date -> JournalEntryRepository.month(DateConverter.toIsoString(date)))
+        .distinct()
+        .collect(Collectors.toList());
+  }
+
+  private static String month(final String dateBucket) {
+    // date buckets are ISO dates, the month is their yyyy-MM prefix
+    return dateBucket.substring(0, 7);
+  }
+
+  private static CompletableFuture<Void> toCompletableFuture(final ResultSetFuture resultSetFuture) {
+    final CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+    resultSetFuture.addListener(() -> {
+      try {
+        resultSetFuture.getUninterruptibly();
+        completableFuture.complete(null);
+      } catch (final RuntimeException ex) {
+        completableFuture.completeExceptionally(ex);
+      }
+    }, Runnable::run);
+    return completableFuture;
   }
 }
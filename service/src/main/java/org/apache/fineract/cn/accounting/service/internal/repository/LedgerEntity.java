@@ -25,12 +25,15 @@ import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @SuppressWarnings({"unused"})
 @Entity
@@ -38,7 +41,12 @@ import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
 public class LedgerEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "thoth_ledgers_id_gen")
+  @GenericGenerator(name = "thoth_ledgers_id_gen", strategy = "org.apache.fineract.cn.accounting.service.internal.repository.PooledSequenceGenerator",
+      parameters = {
+          @Parameter(name = "sequence_name", value = "thoth_ledgers_id_seq"),
+          @Parameter(name = "increment_size", value = "50")
+      })
   @Column(name = "id")
   private Long id;
   @Column(name = "a_type")
@@ -54,6 +62,8 @@ public class LedgerEntity {
   private LedgerEntity parentLedger;
   @Column(name = "total_value")
   private BigDecimal totalValue;
+  @Formula("(SELECT COALESCE(SUM(s.delta), 0) FROM thoth_ledger_total_shards s WHERE s.ledger_id = id)")
+  private BigDecimal shardedTotalValue;
   @Column(name = "created_on")
   @Convert(converter = LocalDateTimeConverter.class)
   private LocalDateTime createdOn;
@@ -66,6 +76,9 @@ public class LedgerEntity {
   private String lastModifiedBy;
   @Column(name = "show_accounts_in_chart")
   private Boolean showAccountsInChart;
+  @Version
+  @Column(name = "version")
+  private Long version;
 
   public LedgerEntity() {
     super();
@@ -127,6 +140,14 @@ public class LedgerEntity {
     this.totalValue = totalValue;
   }
 
+  public BigDecimal getShardedTotalValue() {
+    return this.shardedTotalValue;
+  }
+
+  public void setShardedTotalValue(final BigDecimal shardedTotalValue) {
+    this.shardedTotalValue = shardedTotalValue;
+  }
+
   public LocalDateTime getCreatedOn() {
     return this.createdOn;
   }
@@ -167,6 +188,14 @@ public class LedgerEntity {
     this.showAccountsInChart = showAccountsInChart;
   }
 
+  public Long getVersion() {
+    return this.version;
+  }
+
+  public void setVersion(final Long version) {
+    this.version = version;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) return true;
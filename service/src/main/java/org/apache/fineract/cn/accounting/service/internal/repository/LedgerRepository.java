@@ -20,9 +20,16 @@ package org.apache.fineract.cn.accounting.service.internal.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import javax.persistence.LockModeType;
 
 @Repository
 public interface LedgerRepository extends JpaRepository<LedgerEntity, Long>, JpaSpecificationExecutor<LedgerEntity> {
@@ -34,4 +41,29 @@ public interface LedgerRepository extends JpaRepository<LedgerEntity, Long>, Jpa
   List<LedgerEntity> findByParentLedgerOrderByIdentifier(final LedgerEntity parentLedger);
 
   LedgerEntity findByIdentifier(final String identifier);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT l FROM LedgerEntity l WHERE l.id IN :ids ORDER BY l.id")
+  List<LedgerEntity> lockByIdIn(@Param("ids") final Collection<Long> ids);
+
+  @Modifying
+  @Query("UPDATE LedgerEntity l SET l.totalValue = COALESCE(l.totalValue, 0) + :amount, l.version = l.version + 1 " +
+      "WHERE l.id IN :ids")
+  int adjustTotalValue(@Param("ids") final Collection<Long> ids, @Param("amount") final BigDecimal amount);
+
+  @Modifying
+  @Query(value = "INSERT INTO thoth_ledger_total_shards (ledger_id, shard, delta) VALUES (:ledgerId, :shard, :amount) " +
+      "ON CONFLICT (ledger_id, shard) DO UPDATE SET delta = thoth_ledger_total_shards.delta + EXCLUDED.delta",
+      nativeQuery = true)
+  int adjustTotalValueShard(@Param("ledgerId") final Long ledgerId, @Param("shard") final Integer shard,
+                            @Param("amount") final BigDecimal amount);
+
+  @Modifying
+  @Query(value = "WITH folded AS (DELETE FROM thoth_ledger_total_shards RETURNING ledger_id, delta), " +
+      "totals AS (SELECT ledger_id, SUM(delta) AS delta FROM folded GROUP BY ledger_id) " +
+      "UPDATE thoth_ledgers SET total_value = COALESCE(thoth_ledgers.total_value, 0) + totals.delta, " +
+      "version = thoth_ledgers.version + 1 " +
+      "FROM totals WHERE thoth_ledgers.id = totals.ledger_id",
+      nativeQuery = true)
+  int foldTotalValueShards();
 }
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.repository;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence based id generator using the pooled-lo strategy: every call to the sequence reserves a block of
+ * increment_size ids, starting at the returned value. Blocks are kept per tenant, as every tenant has its
+ * own database and sequences while sharing one session factory.
+ */
+@SuppressWarnings("unused")
+public class PooledSequenceGenerator implements IdentifierGenerator, Configurable {
+
+  public static final String SEQUENCE_NAME = "sequence_name";
+  public static final String INCREMENT_SIZE = "increment_size";
+
+  private final ConcurrentHashMap<String, Pool> pools = new ConcurrentHashMap<>();
+
+  private String sql;
+  private int incrementSize;
+
+  public PooledSequenceGenerator() {
+    super();
+  }
+
+  @Override
+  public void configure(final Type type, final Properties params, final ServiceRegistry serviceRegistry)
+      throws MappingException {
+    final String sequenceName = ConfigurationHelper.getString(SEQUENCE_NAME, params);
+    if (sequenceName == null) {
+      throw new MappingException("Parameter " + SEQUENCE_NAME + " is required.");
+    }
+    this.sql = "SELECT nextval('" + sequenceName + "')";
+    this.incrementSize = ConfigurationHelper.getInt(INCREMENT_SIZE, params, 1);
+    if (this.incrementSize < 1) {
+      throw new MappingException("Parameter " + INCREMENT_SIZE + " must be positive.");
+    }
+  }
+
+  @Override
+  public Serializable generate(final SessionImplementor session, final Object object) throws HibernateException {
+    final Pool pool = this.pools.computeIfAbsent(TenantContextHolder.checkedGetIdentifier(), tenant -> new Pool());
+    synchronized (pool) {
+      if (pool.next == null || pool.next >= pool.upperLimit) {
+        pool.next = this.nextValue(session);
+        pool.upperLimit = pool.next + this.incrementSize;
+      }
+      return pool.next++;
+    }
+  }
+
+  private long nextValue(final SessionImplementor session) {
+    try {
+      final PreparedStatement statement =
+          session.getJdbcCoordinator().getStatementPreparer().prepareStatement(this.sql);
+      try {
+        final ResultSet resultSet = session.getJdbcCoordinator().getResultSetReturn().extract(statement);
+        try {
+          resultSet.next();
+          return resultSet.getLong(1);
+        } finally {
+          session.getJdbcCoordinator().getResourceRegistry().release(resultSet, statement);
+        }
+      } finally {
+        session.getJdbcCoordinator().getResourceRegistry().release(statement);
+        session.getJdbcCoordinator().afterStatementExecution();
+      }
+    } catch (final SQLException ex) {
+      throw session.getFactory().getSQLExceptionHelper().convert(ex, "Could not get next sequence value.", this.sql);
+    }
+  }
+
+  private static class Pool {
+    private Long next;
+    private long upperLimit;
+  }
+}
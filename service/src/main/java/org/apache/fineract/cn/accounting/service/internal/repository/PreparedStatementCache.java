@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.repository;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.fineract.cn.cassandra.core.CassandraSessionProvider;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepares every query once per tenant session, so Cassandra does not have to parse it on every request.
+ */
+@Component
+public class PreparedStatementCache {
+
+  private final CassandraSessionProvider cassandraSessionProvider;
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, PreparedStatement>> preparedStatements =
+      new ConcurrentHashMap<>();
+
+  @Autowired
+  public PreparedStatementCache(final CassandraSessionProvider cassandraSessionProvider) {
+    super();
+    this.cassandraSessionProvider = cassandraSessionProvider;
+  }
+
+  public BoundStatement bind(final String query, final Object... values) {
+    return this.prepare(query).bind(values);
+  }
+
+  public PreparedStatement prepare(final String query) {
+    return this.preparedStatements
+        .computeIfAbsent(TenantContextHolder.checkedGetIdentifier(), tenant -> new ConcurrentHashMap<>())
+        .computeIfAbsent(query, key -> this.cassandraSessionProvider.getTenantSession().prepare(key));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.repository;
+
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Counterpart of {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#findAll(Specification, Pageable)}
+ * returning a slice, one row more than requested is read instead of running a count query.
+ */
+@Repository
+public class SpecificationSliceExecutor {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public SpecificationSliceExecutor() {
+    super();
+  }
+
+  public <T> Slice<T> findSlice(final Class<T> entityClass,
+                                final @Nullable Specification<T> specification,
+                                final Pageable pageable) {
+    final CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
+    final CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(entityClass);
+    final Root<T> root = criteriaQuery.from(entityClass);
+    criteriaQuery.select(root);
+
+    if (specification != null) {
+      final Predicate predicate = specification.toPredicate(root, criteriaQuery, criteriaBuilder);
+      if (predicate != null) {
+        criteriaQuery.where(predicate);
+      }
+    }
+    if (pageable.getSort() != null) {
+      criteriaQuery.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+    }
+
+    final TypedQuery<T> query = this.entityManager.createQuery(criteriaQuery);
+    query.setFirstResult(pageable.getOffset());
+    query.setMaxResults(pageable.getPageSize() + 1);
+
+    final List<T> content = query.getResultList();
+    final boolean hasNext = content.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.repository;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.PreDestroy;
+import org.apache.fineract.cn.cassandra.core.CassandraSessionProvider;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per tenant Bloom filter of all known transaction identifiers, answering whether an identifier might
+ * exist without reading Cassandra.
+ *
+ * <p>The filter of a tenant is seeded from thoth_journal_entry_lookup in the background on first use and
+ * rebuilt with twice the capacity once more identifiers were put than it was sized for. Until a filter is
+ * seeded every identifier might exist.</p>
+ *
+ * <p>The filter is only ever used to tell that an identifier is definitely absent, never that it is a
+ * duplicate; every identifier it might contain is still looked up in Cassandra. Identifiers saved by other
+ * nodes reach it with the journal entry event all nodes consume, so an absent answer can only be wrong
+ * while such an event is in flight. That is no wider than the window the lookup always had against a
+ * posting still being processed on another node, and bookings themselves are guarded by the applied
+ * postings. A capacity of 0 disables the filter.</p>
+ */
+@Component
+public class TransactionIdentifierFilter {
+
+  private static final String SELECT_ALL_TRANSACTION_IDENTIFIERS = QueryBuilder
+      .select("transaction_identifier")
+      .from("thoth_journal_entry_lookup")
+      .getQueryString();
+
+  private final Logger logger;
+  private final CassandraSessionProvider cassandraSessionProvider;
+  private final PreparedStatementCache preparedStatementCache;
+  private final Long expectedInsertions;
+  private final Double falsePositiveProbability;
+  private final ConcurrentHashMap<String, TenantFilter> tenantFilters = new ConcurrentHashMap<>();
+  private final ExecutorService seedExecutor;
+
+  @Autowired
+  public TransactionIdentifierFilter(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                                     final CassandraSessionProvider cassandraSessionProvider,
+                                     final PreparedStatementCache preparedStatementCache,
+                                     @Value("${accounting.journal.duplicateFilter.expectedInsertions:1000000}")
+                                     final Long expectedInsertions,
+                                     @Value("${accounting.journal.duplicateFilter.falsePositiveProbability:0.01}")
+                                     final Double falsePositiveProbability) {
+    super();
+    this.logger = logger;
+    this.cassandraSessionProvider = cassandraSessionProvider;
+    this.preparedStatementCache = preparedStatementCache;
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveProbability = falsePositiveProbability;
+    this.seedExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "transaction-identifier-filter");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public boolean mightContain(final String transactionIdentifier) {
+    if (this.expectedInsertions <= 0L) {
+      return true;
+    }
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final TenantFilter tenantFilter = this.tenantFilters.computeIfAbsent(tenantIdentifier, key -> new TenantFilter());
+    final BloomFilter active = tenantFilter.active;
+    if (active == null) {
+      this.seed(tenantIdentifier, tenantFilter, this.expectedInsertions);
+      return true;
+    }
+    return active.mightContain(transactionIdentifier);
+  }
+
+  public void put(final String transactionIdentifier) {
+    this.put(TenantContextHolder.checkedGetIdentifier(), transactionIdentifier);
+  }
+
+  public void put(final String tenantIdentifier, final String transactionIdentifier) {
+    if (this.expectedInsertions <= 0L) {
+      return;
+    }
+    final TenantFilter tenantFilter = this.tenantFilters.get(tenantIdentifier);
+    if (tenantFilter == null) {
+      return;
+    }
+    // a seeding filter is activated before it is released, reading it first guarantees the identifier is put
+    // into the filter active from now on
+    final BloomFilter seeding = tenantFilter.seeding;
+    if (seeding != null) {
+      seeding.put(transactionIdentifier);
+    }
+    final BloomFilter active = tenantFilter.active;
+    if (active != null) {
+      active.put(transactionIdentifier);
+      if (active.isSaturated()) {
+        this.seed(tenantIdentifier, tenantFilter, active.insertions.get() * 2L);
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.seedExecutor.shutdownNow();
+  }
+
+  private void seed(final String tenantIdentifier, final TenantFilter tenantFilter, final long expectedInsertions) {
+    if (!tenantFilter.seedingInProgress.compareAndSet(false, true)) {
+      return;
+    }
+    // identifiers saved while the lookup table is scanned are put into the new filter as well
+    final BloomFilter seeding = new BloomFilter(expectedInsertions, this.falsePositiveProbability);
+    tenantFilter.seeding = seeding;
+    this.seedExecutor.execute(() -> {
+      TenantContextHolder.setIdentifier(tenantIdentifier);
+      try {
+        final Statement stmt = this.preparedStatementCache.bind(SELECT_ALL_TRANSACTION_IDENTIFIERS);
+        stmt.setFetchSize(5000);
+        for (final Row row : this.cassandraSessionProvider.getTenantSession().execute(stmt)) {
+          seeding.put(row.getString("transaction_identifier"));
+        }
+        tenantFilter.active = seeding;
+        this.logger.info("Transaction identifier filter of tenant {} seeded for {} identifiers.",
+            tenantIdentifier, expectedInsertions);
+      } catch (final RuntimeException ex) {
+        this.logger.warn("Could not seed transaction identifier filter of tenant {}.", tenantIdentifier, ex);
+      } finally {
+        tenantFilter.seeding = null;
+        tenantFilter.seedingInProgress.set(false);
+        TenantContextHolder.clear();
+      }
+      if (tenantFilter.active == seeding && seeding.isSaturated()) {
+        this.seed(tenantIdentifier, tenantFilter, seeding.insertions.get() * 2L);
+      }
+    });
+  }
+
+  private static class TenantFilter {
+    private volatile BloomFilter active;
+    private volatile BloomFilter seeding;
+    private final AtomicBoolean seedingInProgress = new AtomicBoolean(false);
+  }
+
+  static class BloomFilter {
+    private final long expectedInsertions;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLongArray bits;
+    private final AtomicLong insertions = new AtomicLong();
+
+    BloomFilter(final long expectedInsertions, final double falsePositiveProbability) {
+      super();
+      this.expectedInsertions = Math.max(expectedInsertions, 1L);
+      final double ln2 = Math.log(2.0D);
+      final long optimalBitCount =
+          (long) (-this.expectedInsertions * Math.log(falsePositiveProbability) / (ln2 * ln2));
+      this.bits = new AtomicLongArray((int) Math.max((optimalBitCount + 63L) / 64L, 1L));
+      this.bitCount = this.bits.length() * 64L;
+      this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / this.expectedInsertions * ln2));
+    }
+
+    boolean mightContain(final String value) {
+      final long hash = BloomFilter.hash(value);
+      final int hash1 = (int) hash;
+      final int hash2 = (int) (hash >>> 32);
+      for (int i = 1; i <= this.hashCount; i++) {
+        final long index = ((hash1 + (long) i * hash2) & Long.MAX_VALUE) % this.bitCount;
+        if ((this.bits.get((int) (index >>> 6)) & (1L << index)) == 0L) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Counts every put, also of values already contained, as a value whose bits happen to be set by
+     * others still adds to the false positive rate. Repeated puts make the filter roll over early,
+     * never late.
+     */
+    void put(final String value) {
+      final long hash = BloomFilter.hash(value);
+      final int hash1 = (int) hash;
+      final int hash2 = (int) (hash >>> 32);
+      for (int i = 1; i <= this.hashCount; i++) {
+        final long index = ((hash1 + (long) i * hash2) & Long.MAX_VALUE) % this.bitCount;
+        final int word = (int) (index >>> 6);
+        final long mask = 1L << index;
+        long current;
+        while (((current = this.bits.get(word)) & mask) == 0L) {
+          if (this.bits.compareAndSet(word, current, current | mask)) {
+            break;
+          }
+        }
+      }
+      this.insertions.incrementAndGet();
+    }
+
+    boolean isSaturated() {
+      return this.insertions.get() > this.expectedInsertions;
+    }
+
+    private static long hash(final String value) {
+      // 64 bit FNV-1a over the characters, finished with the MurmurHash3 mixer to spread the bits
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < value.length(); i++) {
+        hash ^= value.charAt(i);
+        hash *= 0x100000001b3L;
+      }
+      hash ^= hash >>> 33;
+      hash *= 0xff51afd7ed558ccdL;
+      hash ^= hash >>> 33;
+      hash *= 0xc4ceb93fe1a85ec3L;
+      hash ^= hash >>> 33;
+      return hash;
+    }
+  }
+}
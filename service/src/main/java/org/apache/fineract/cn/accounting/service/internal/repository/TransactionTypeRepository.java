@@ -20,6 +20,7 @@ package org.apache.fineract.cn.accounting.service.internal.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -32,5 +33,9 @@ public interface TransactionTypeRepository extends JpaRepository<TransactionType
                                                                          final String name,
                                                                          final Pageable pageable);
 
+  Slice<TransactionTypeEntity> findSliceByIdentifierContainingOrNameContaining(final String identifier,
+                                                                               final String name,
+                                                                               final Pageable pageable);
+
   Optional<TransactionTypeEntity> findByIdentifier(final String identifier);
 }
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.scheduler;
+
+import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import org.apache.fineract.cn.accounting.service.internal.repository.LedgerRepository;
+import org.apache.fineract.cn.accounting.service.internal.tenant.ActiveTenants;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Folds the sharded ledger total adjustments written during booking back into
+ * {@code thoth_ledgers.total_value}, keeping the number of shard rows read per ledger small.
+ */
+@Component
+public class LedgerTotalCompactor {
+
+  private final Logger logger;
+  private final ActiveTenants activeTenants;
+  private final LedgerRepository ledgerRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Integer totalValueShards;
+
+  @Autowired
+  public LedgerTotalCompactor(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                              final ActiveTenants activeTenants,
+                              final LedgerRepository ledgerRepository,
+                              final PlatformTransactionManager transactionManager,
+                              @Value("${accounting.ledger.totalValueShards:16}") final Integer totalValueShards) {
+    super();
+    this.logger = logger;
+    this.activeTenants = activeTenants;
+    this.ledgerRepository = ledgerRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.totalValueShards = totalValueShards;
+  }
+
+  @Scheduled(
+      initialDelayString = "${accounting.ledger.totalValueCompactionDelay:60000}",
+      fixedDelayString = "${accounting.ledger.totalValueCompactionDelay:60000}"
+  )
+  public void compact() {
+    if (this.totalValueShards <= 0) {
+      return;
+    }
+
+    this.activeTenants.forEachTenant(tenant -> {
+      try {
+        final Integer foldedLedgers = this.transactionTemplate.execute(status -> this.ledgerRepository.foldTotalValueShards());
+        this.logger.debug("Folded total value shards of {} ledgers for tenant {}.", foldedLedgers, tenant);
+      } catch (final RuntimeException ex) {
+        this.logger.warn("Could not fold total value shards for tenant {}.", tenant, ex);
+      }
+    });
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.scheduler;
+
+import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import org.apache.fineract.cn.accounting.service.internal.command.BookJournalEntryCommand;
+import org.apache.fineract.cn.accounting.service.internal.posting.PostingExecutor;
+import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryEntity;
+import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryRepository;
+import org.apache.fineract.cn.accounting.service.internal.tenant.ActiveTenants;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.apache.fineract.cn.lang.DateConverter;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Books journal entries left pending, e.g. by a node stopped between writing and booking them.
+ *
+ * <p>Only entries pending for longer than the threshold are dispatched again, and not again before
+ * the threshold passed once more. Booking skips entries no longer pending, so entries booked in the
+ * meantime are not booked twice.</p>
+ *
+ * <p>Sweeps run on a thread of their own, as dispatching blocks while the posting lanes are full and
+ * must not hold up the jobs sharing the scheduler thread. The first sweep starts once the application
+ * is ready, after the tenants initialized before the restart have been seeded.</p>
+ */
+@Component
+public class PendingJournalEntrySweeper {
+
+  private final Logger logger;
+  private final ActiveTenants activeTenants;
+  private final JournalEntryRepository journalEntryRepository;
+  private final PostingExecutor postingExecutor;
+  private final CounterService counterService;
+  private final GaugeService gaugeService;
+  private final Integer lookbackDays;
+  private final Duration pendingAfter;
+  private final Long initialDelay;
+  private final Long interval;
+  private final Map<String, Map<String, LocalDateTime>> dispatchedOn = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService sweepExecutor;
+
+  @Autowired
+  public PendingJournalEntrySweeper(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                                    final ActiveTenants activeTenants,
+                                    final JournalEntryRepository journalEntryRepository,
+                                    final PostingExecutor postingExecutor,
+                                    final CounterService counterService,
+                                    final GaugeService gaugeService,
+                                    @Value("${accounting.journal.recovery.lookbackDays:2}") final Integer lookbackDays,
+                                    @Value("${accounting.journal.recovery.pendingAfter:60000}") final Long pendingAfter,
+                                    @Value("${accounting.journal.recovery.initialDelay:5000}") final Long initialDelay,
+                                    @Value("${accounting.journal.recovery.interval:30000}") final Long interval) {
+    super();
+    this.logger = logger;
+    this.activeTenants = activeTenants;
+    this.journalEntryRepository = journalEntryRepository;
+    this.postingExecutor = postingExecutor;
+    this.counterService = counterService;
+    this.gaugeService = gaugeService;
+    this.lookbackDays = lookbackDays;
+    this.pendingAfter = Duration.ofMillis(pendingAfter);
+    this.initialDelay = initialDelay;
+    this.interval = interval;
+    this.sweepExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "pending-journal-entry-sweeper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    this.sweepExecutor.scheduleWithFixedDelay(() -> {
+      // an escaping exception would cancel all further sweeps
+      try {
+        this.sweep();
+      } catch (final RuntimeException ex) {
+        this.logger.warn("Could not sweep pending journal entries.", ex);
+      }
+    }, this.initialDelay, this.interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.sweepExecutor.shutdownNow();
+  }
+
+  public void sweep() {
+    if (this.lookbackDays < 0) {
+      return;
+    }
+
+    this.activeTenants.forEachTenant(tenant -> {
+      try {
+        this.sweepTenant(tenant);
+      } catch (final RuntimeException ex) {
+        this.logger.warn("Could not recover pending journal entries for tenant {}.", tenant, ex);
+      }
+    });
+  }
+
+  private void sweepTenant(final String tenant) {
+    final LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
+    final List<String> dateBuckets = new ArrayList<>(this.lookbackDays + 1);
+    final LocalDate today = now.toLocalDate();
+    for (int i = this.lookbackDays; i >= 0; i--) {
+      dateBuckets.add(DateConverter.toIsoString(today.minusDays(i)));
+    }
+
+    // partitions are read in parallel, bounded by the journal fan out concurrency
+    final List<JournalEntryEntity> pendingJournalEntries = this.journalEntryRepository.findPendingJournalEntries(dateBuckets);
+    final LocalDateTime pendingBefore = now.minus(this.pendingAfter);
+
+    final Map<String, LocalDateTime> previouslyDispatchedOn =
+        this.dispatchedOn.getOrDefault(tenant, new ConcurrentHashMap<>());
+    final Map<String, LocalDateTime> currentlyDispatchedOn = new ConcurrentHashMap<>();
+    int dispatched = 0;
+    long lag = 0L;
+    for (final JournalEntryEntity journalEntryEntity : pendingJournalEntries) {
+      final String transactionIdentifier = journalEntryEntity.getTransactionIdentifier();
+      final LocalDateTime createdOn = journalEntryEntity.getCreatedOn() != null
+          ? journalEntryEntity.getCreatedOn()
+          : journalEntryEntity.getTransactionDate();
+      if (createdOn.isAfter(pendingBefore)) {
+        continue;
+      }
+      lag = Math.max(lag, Duration.between(createdOn, now).toMillis());
+
+      // an earlier dispatch may still wait in its posting lane
+      final LocalDateTime lastDispatchedOn = previouslyDispatchedOn.get(transactionIdentifier);
+      if (lastDispatchedOn != null && lastDispatchedOn.isAfter(pendingBefore)) {
+        currentlyDispatchedOn.put(transactionIdentifier, lastDispatchedOn);
+        continue;
+      }
+      currentlyDispatchedOn.put(transactionIdentifier, now);
+
+      this.postingExecutor.submit(PendingJournalEntrySweeper.accountNumbers(journalEntryEntity),
+          new BookJournalEntryCommand(transactionIdentifier));
+      this.counterService.increment("accounting.journal.recovery.dispatched");
+      dispatched++;
+    }
+
+    // entries no longer pending are forgotten
+    this.dispatchedOn.put(tenant, currentlyDispatchedOn);
+
+    this.gaugeService.submit("accounting.journal.recovery.pending", pendingJournalEntries.size());
+    this.gaugeService.submit("accounting.journal.recovery.lag", lag);
+    if (dispatched > 0) {
+      this.logger.info("Dispatched {} pending journal entries of tenant {} for booking again, oldest pending for {} ms.",
+          dispatched, tenant, lag);
+    }
+  }
+
+  private static Set<String> accountNumbers(final JournalEntryEntity journalEntryEntity) {
+    final Set<String> accountNumbers = new HashSet<>();
+    journalEntryEntity.getDebtors().forEach(debtor -> accountNumbers.add(debtor.getAccountNumber()));
+    journalEntryEntity.getCreditors().forEach(creditor -> accountNumbers.add(creditor.getAccountNumber()));
+    return accountNumbers;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.service;
+
+import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountDailyBalanceRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Builds the daily account balances from the account entries, in chunks of accounts rebuilt in parallel. Every chunk
+ * is its own transaction and locks its accounts, so bookings running meanwhile are not lost.
+ */
+@Service
+public class AccountDailyBalanceBackfill {
+
+  private final Logger logger;
+  private final AccountDailyBalanceRepository accountDailyBalanceRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Integer chunkSize;
+  private final Integer threads;
+
+  @Autowired
+  public AccountDailyBalanceBackfill(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                                     final AccountDailyBalanceRepository accountDailyBalanceRepository,
+                                     final PlatformTransactionManager transactionManager,
+                                     @Value("${accounting.account.dailyBalances.backfillChunkSize:500}") final Integer chunkSize,
+                                     @Value("${accounting.account.dailyBalances.backfillThreads:4}") final Integer threads) {
+    super();
+    this.logger = logger;
+    this.accountDailyBalanceRepository = accountDailyBalanceRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+    this.threads = threads;
+  }
+
+  /**
+   * Rebuilds the daily balances of all accounts of the current tenant and returns the number of rows written.
+   */
+  public long backfill() {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final long maxAccountId = this.accountDailyBalanceRepository.findMaxAccountId();
+    this.logger.info("Start daily balance backfill for accounts up to id {} ...", maxAccountId);
+
+    final ExecutorService executorService = Executors.newFixedThreadPool(this.threads, runnable -> {
+      final Thread thread = new Thread(runnable, "daily-balance-backfill");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      final List<Future<Integer>> chunks = new ArrayList<>();
+      for (long fromAccountId = 1L; fromAccountId <= maxAccountId; fromAccountId += this.chunkSize) {
+        final long chunkFromAccountId = fromAccountId;
+        final long chunkToAccountId = fromAccountId + this.chunkSize - 1L;
+        chunks.add(executorService.submit(() -> {
+          TenantContextHolder.setIdentifier(tenantIdentifier);
+          try {
+            return this.transactionTemplate.execute(status ->
+                this.accountDailyBalanceRepository.rebuild(chunkFromAccountId, chunkToAccountId));
+          } finally {
+            TenantContextHolder.clear();
+          }
+        }));
+      }
+
+      long count = 0L;
+      for (final Future<Integer> chunk : chunks) {
+        count += chunk.get();
+      }
+      this.logger.info("Daily balance backfill finished with {} rows.", count);
+      return count;
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted during daily balance backfill.", ex);
+    } catch (final ExecutionException ex) {
+      throw new IllegalStateException("Daily balance backfill failed.", ex.getCause());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.service;
+
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountProjection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per tenant cache of account projections, bounded in size and age.
+ *
+ * <p>Entries are evicted by the account commands of this node and by the account events of all
+ * nodes. Accounts not found are never cached, so new accounts are visible immediately.</p>
+ *
+ * <p>Hits and misses are added up once per lookup and published as counters.</p>
+ */
+@Component
+public class AccountProjectionCache implements PublicMetrics {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final Integer maxSize;
+  private final long expireAfterNanos;
+  private final ConcurrentHashMap<String, TenantCache> tenantCaches = new ConcurrentHashMap<>();
+
+  @Autowired
+  public AccountProjectionCache(@Value("${accounting.account.cache.maxSize:10000}") final Integer maxSize,
+                                @Value("${accounting.account.cache.expireAfter:60000}") final Long expireAfter) {
+    super();
+    this.maxSize = maxSize;
+    this.expireAfterNanos = TimeUnit.MILLISECONDS.toNanos(expireAfter);
+  }
+
+  public Map<String, AccountProjection> getAll(
+      final Collection<String> identifiers,
+      final Function<Collection<String>, Map<String, AccountProjection>> loader) {
+    if (this.maxSize <= 0) {
+      return loader.apply(identifiers);
+    }
+
+    final TenantCache tenantCache =
+        this.tenantCaches.computeIfAbsent(TenantContextHolder.checkedGetIdentifier(), tenant -> new TenantCache());
+    final Map<String, AccountProjection> accountProjections = new HashMap<>(identifiers.size());
+    final List<String> missingIdentifiers = new ArrayList<>();
+    final long generation;
+    synchronized (tenantCache) {
+      final long now = System.nanoTime();
+      identifiers.forEach(identifier -> {
+        final CacheEntry cacheEntry = tenantCache.entries.get(identifier);
+        if (cacheEntry != null && now - cacheEntry.loadedAt < this.expireAfterNanos) {
+          accountProjections.put(identifier, cacheEntry.accountProjection);
+        } else {
+          missingIdentifiers.add(identifier);
+        }
+      });
+      generation = tenantCache.generation;
+    }
+    this.hits.add(accountProjections.size());
+    this.misses.add(missingIdentifiers.size());
+
+    if (!missingIdentifiers.isEmpty()) {
+      final Map<String, AccountProjection> loadedAccountProjections = loader.apply(missingIdentifiers);
+      accountProjections.putAll(loadedAccountProjections);
+      synchronized (tenantCache) {
+        // skip caching if an account was evicted while loading, the loaded state might be stale
+        if (tenantCache.generation == generation) {
+          final long now = System.nanoTime();
+          loadedAccountProjections.forEach((identifier, accountProjection) ->
+              tenantCache.entries.put(identifier, new CacheEntry(accountProjection, now)));
+        }
+      }
+    }
+    return accountProjections;
+  }
+
+  /**
+   * Evicts the account of the current tenant, again after the surrounding transaction completed.
+   */
+  public void evict(final String identifier) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    this.evict(tenantIdentifier, identifier);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCompletion(final int status) {
+          AccountProjectionCache.this.evict(tenantIdentifier, identifier);
+        }
+      });
+    }
+  }
+
+  public void evict(final String tenantIdentifier, final String identifier) {
+    final TenantCache tenantCache = this.tenantCaches.get(tenantIdentifier);
+    if (tenantCache != null) {
+      synchronized (tenantCache) {
+        tenantCache.entries.remove(identifier);
+        tenantCache.generation++;
+      }
+    }
+  }
+
+  @Override
+  public Collection<Metric<?>> metrics() {
+    return Arrays.<Metric<?>>asList(
+        new Metric<>("counter.accounting.account.cache.hit", this.hits.sum()),
+        new Metric<>("counter.accounting.account.cache.miss", this.misses.sum()));
+  }
+
+  private class TenantCache {
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<String, CacheEntry>(16, 0.75F, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+        return this.size() > AccountProjectionCache.this.maxSize;
+      }
+    };
+    private long generation;
+  }
+
+  private static class CacheEntry {
+    private final AccountProjection accountProjection;
+    private final long loadedAt;
+
+    private CacheEntry(final AccountProjection accountProjection, final long loadedAt) {
+      super();
+      this.accountProjection = accountProjection;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.fineract.cn.accounting.service.internal.service;
 
 import org.apache.fineract.cn.accounting.api.v1.domain.Account;
+import org.apache.fineract.cn.accounting.api.v1.domain.AccountBalance;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountCommand;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountEntry;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountEntryPage;
@@ -29,37 +30,58 @@ import org.apache.fineract.cn.accounting.service.internal.mapper.AccountMapper;
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountEntryEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountEntryRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountProjection;
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountRepository;
 import org.apache.fineract.cn.accounting.service.internal.repository.CommandEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.CommandRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.SpecificationSliceExecutor;
 import org.apache.fineract.cn.accounting.service.internal.repository.specification.AccountSpecification;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import org.apache.fineract.cn.lang.DateConverter;
 import org.apache.fineract.cn.lang.DateRange;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AccountService {
 
+  private static final int LOOKUP_CHUNK_SIZE = 1000;
+
   private final AccountRepository accountRepository;
   private final AccountEntryRepository accountEntryRepository;
   private final CommandRepository commandRepository;
+  private final AccountProjectionCache accountProjectionCache;
+  private final SpecificationSliceExecutor specificationSliceExecutor;
 
   @Autowired
   public AccountService(final AccountRepository accountRepository,
                         final AccountEntryRepository accountEntryRepository,
-                        final CommandRepository commandRepository) {
+                        final CommandRepository commandRepository,
+                        final AccountProjectionCache accountProjectionCache,
+                        final SpecificationSliceExecutor specificationSliceExecutor) {
     super();
     this.accountRepository = accountRepository;
     this.accountEntryRepository = accountEntryRepository;
     this.commandRepository = commandRepository;
+    this.accountProjectionCache = accountProjectionCache;
+    this.specificationSliceExecutor = specificationSliceExecutor;
   }
 
   public Optional<Account> findAccount(final String identifier) {
@@ -71,17 +93,44 @@ public class AccountService {
     }
   }
 
+  /**
+   * Resolves all given account numbers at once, served from the cache where possible. Accounts not found are
+   * missing in the returned map.
+   */
+  public Map<String, AccountProjection> findAccountProjections(final Collection<String> identifiers) {
+    return this.accountProjectionCache.getAll(identifiers, this::loadAccountProjections);
+  }
+
+  private Map<String, AccountProjection> loadAccountProjections(final Collection<String> identifiers) {
+    final Map<String, AccountProjection> accountProjections = new HashMap<>(identifiers.size());
+    final List<String> identifierList = new ArrayList<>(identifiers);
+    for (int i = 0; i < identifierList.size(); i += AccountService.LOOKUP_CHUNK_SIZE) {
+      this.accountRepository.findProjectionsByIdentifierIn(
+          identifierList.subList(i, Math.min(i + AccountService.LOOKUP_CHUNK_SIZE, identifierList.size())))
+          .forEach(accountProjection -> accountProjections.put(accountProjection.getIdentifier(), accountProjection));
+    }
+    return accountProjections;
+  }
+
+  /**
+   * If slice is set no count query is run, totals are left empty and only hasNextPage is given.
+   */
   public AccountPage fetchAccounts(
       final boolean includeClosed, final String term, final String type,
-      final boolean includeCustomerAccounts, final Pageable pageable) {
+      final boolean includeCustomerAccounts, final Pageable pageable, final boolean slice) {
 
-    final Page<AccountEntity> accountEntities = this.accountRepository.findAll(
-        AccountSpecification.createSpecification(includeClosed, term, type, includeCustomerAccounts), pageable
-    );
+    final Specification<AccountEntity> specification =
+        AccountSpecification.createSpecification(includeClosed, term, type, includeCustomerAccounts);
+    final Slice<AccountEntity> accountEntities = slice
+        ? this.specificationSliceExecutor.findSlice(AccountEntity.class, specification, pageable)
+        : this.accountRepository.findAll(specification, pageable);
 
     final AccountPage accountPage = new AccountPage();
-    accountPage.setTotalPages(accountEntities.getTotalPages());
-    accountPage.setTotalElements(accountEntities.getTotalElements());
+    if (accountEntities instanceof Page) {
+      accountPage.setTotalPages(((Page<AccountEntity>) accountEntities).getTotalPages());
+      accountPage.setTotalElements(((Page<AccountEntity>) accountEntities).getTotalElements());
+    }
+    accountPage.setHasNextPage(accountEntities.hasNext());
 
     if(accountEntities.getSize() > 0){
       final List<Account> accounts = new ArrayList<>(accountEntities.getSize());
@@ -96,23 +145,33 @@ public class AccountService {
   public AccountEntryPage fetchAccountEntries(final String identifier,
                                               final DateRange range,
                                               final @Nullable String message,
-                                              final Pageable pageable){
+                                              final Pageable pageable,
+                                              final boolean slice){
 
     final AccountEntity accountEntity = this.accountRepository.findByIdentifier(identifier);
 
-    final Page<AccountEntryEntity> accountEntryEntities;
+    final Slice<AccountEntryEntity> accountEntryEntities;
     if (message == null) {
-      accountEntryEntities = this.accountEntryRepository.findByAccountAndTransactionDateBetween(
-          accountEntity, range.getStartDateTime(), range.getEndDateTime(), pageable);
+      accountEntryEntities = slice
+          ? this.accountEntryRepository.findSliceByAccountAndTransactionDateBetween(
+              accountEntity, range.getStartDateTime(), range.getEndDateTime(), pageable)
+          : this.accountEntryRepository.findByAccountAndTransactionDateBetween(
+              accountEntity, range.getStartDateTime(), range.getEndDateTime(), pageable);
     }
     else {
-      accountEntryEntities = this.accountEntryRepository.findByAccountAndTransactionDateBetweenAndMessageEquals(
-          accountEntity, range.getStartDateTime(), range.getEndDateTime(), message, pageable);
+      accountEntryEntities = slice
+          ? this.accountEntryRepository.findSliceByAccountAndTransactionDateBetweenAndMessageEquals(
+              accountEntity, range.getStartDateTime(), range.getEndDateTime(), message, pageable)
+          : this.accountEntryRepository.findByAccountAndTransactionDateBetweenAndMessageEquals(
+              accountEntity, range.getStartDateTime(), range.getEndDateTime(), message, pageable);
     }
 
     final AccountEntryPage accountEntryPage = new AccountEntryPage();
-    accountEntryPage.setTotalPages(accountEntryEntities.getTotalPages());
-    accountEntryPage.setTotalElements(accountEntryEntities.getTotalElements());
+    if (accountEntryEntities instanceof Page) {
+      accountEntryPage.setTotalPages(((Page<AccountEntryEntity>) accountEntryEntities).getTotalPages());
+      accountEntryPage.setTotalElements(((Page<AccountEntryEntity>) accountEntryEntities).getTotalElements());
+    }
+    accountEntryPage.setHasNextPage(accountEntryEntities.hasNext());
 
     if(accountEntryEntities.getSize() > 0){
       final List<AccountEntry> accountEntries = new ArrayList<>(accountEntryEntities.getSize());
@@ -123,6 +182,101 @@ public class AccountService {
     return accountEntryPage;
   }
 
+  /**
+   * Returns a page of entries positioned by an opaque cursor of the last entry's transaction date and id instead of
+   * an offset, so the latency does not depend on the depth of the page and no count is run. The next cursor is null
+   * on the last page.
+   *
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  public AccountEntryPage fetchAccountEntryPage(final String identifier,
+                                                final DateRange range,
+                                                final @Nullable String message,
+                                                final @Nullable String cursor,
+                                                final int pageSize,
+                                                final boolean descending) {
+    final AccountEntity accountEntity = this.accountRepository.findByIdentifier(identifier);
+
+    final LocalDateTime positionDate;
+    final Long positionId;
+    if (cursor != null) {
+      try {
+        final String[] decodedCursor =
+            new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("/", 2);
+        positionDate = LocalDateTime.parse(decodedCursor[0]);
+        positionId = Long.valueOf(decodedCursor[1]);
+      } catch (final RuntimeException ex) {
+        throw new IllegalArgumentException("Invalid cursor " + cursor + ".", ex);
+      }
+    } else {
+      positionDate = descending ? range.getEndDateTime() : range.getStartDateTime();
+      positionId = descending ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+
+    // one entry more than requested tells whether there is a next page
+    final PageRequest pageRequest = new PageRequest(0, pageSize + 1);
+    final List<AccountEntryEntity> accountEntryEntities = descending
+        ? this.accountEntryRepository.findBefore(accountEntity, range.getStartDateTime(), range.getEndDateTime(),
+            message, positionDate, positionId, pageRequest)
+        : this.accountEntryRepository.findAfter(accountEntity, range.getStartDateTime(), range.getEndDateTime(),
+            message, positionDate, positionId, pageRequest);
+
+    final AccountEntryPage accountEntryPage = new AccountEntryPage();
+    final List<AccountEntry> accountEntries = new ArrayList<>(Math.min(pageSize, accountEntryEntities.size()));
+    accountEntryEntities.stream().limit(pageSize).forEach(accountEntryEntity ->
+        accountEntries.add(AccountEntryMapper.map(accountEntryEntity)));
+    accountEntryPage.setAccountEntries(accountEntries);
+    if (accountEntryEntities.size() > pageSize) {
+      final AccountEntryEntity lastAccountEntryEntity = accountEntryEntities.get(pageSize - 1);
+      final String nextCursor = lastAccountEntryEntity.getTransactionDate() + "/" + lastAccountEntryEntity.getId();
+      accountEntryPage.setNextCursor(
+          Base64.getUrlEncoder().withoutPadding().encodeToString(nextCursor.getBytes(StandardCharsets.UTF_8)));
+    }
+    return accountEntryPage;
+  }
+
+  /**
+   * Returns the running balance of the latest entry at or before the given date, the balance the account was opened
+   * with if there is none.
+   */
+  public AccountBalance findAccountBalance(final String identifier, final LocalDateTime asOf) {
+    final AccountEntity accountEntity = this.accountRepository.findByIdentifier(identifier);
+    final List<AccountEntryEntity> latestEntries =
+        this.accountEntryRepository.findLatest(accountEntity, asOf, new PageRequest(0, 1));
+
+    final AccountBalance accountBalance = new AccountBalance();
+    accountBalance.setAccountIdentifier(identifier);
+    accountBalance.setAsOf(DateConverter.toIsoString(asOf));
+    accountBalance.setBalance(
+        latestEntries.isEmpty() ? accountEntity.getOpeningBalance() : latestEntries.get(0).getBalance());
+    return accountBalance;
+  }
+
+  /**
+   * Returns the balances of all given accounts as of the given date, accounts not found are missing in the returned
+   * list.
+   */
+  public List<AccountBalance> fetchAccountBalances(final Collection<String> identifiers, final LocalDateTime asOf) {
+    final String asOfString = DateConverter.toIsoString(asOf);
+    // the same conversion LocalDateTimeConverter applies to transaction dates, so both sides read as wall clock time
+    final Timestamp asOfTimestamp = Timestamp.valueOf(asOf);
+    final List<String> identifierList = new ArrayList<>(identifiers);
+    final List<AccountBalance> accountBalances = new ArrayList<>(identifierList.size());
+    for (int i = 0; i < identifierList.size(); i += AccountService.LOOKUP_CHUNK_SIZE) {
+      this.accountEntryRepository.findBalancesAsOf(
+          identifierList.subList(i, Math.min(i + AccountService.LOOKUP_CHUNK_SIZE, identifierList.size())),
+          asOfTimestamp)
+          .forEach(row -> {
+            final AccountBalance accountBalance = new AccountBalance();
+            accountBalance.setAccountIdentifier((String) row[0]);
+            accountBalance.setAsOf(asOfString);
+            accountBalance.setBalance(((Number) row[1]).doubleValue());
+            accountBalances.add(accountBalance);
+          });
+    }
+    return accountBalances;
+  }
+
   public final List<AccountCommand> fetchCommandsByAccount(final String identifier) {
     final AccountEntity accountEntity = this.accountRepository.findByIdentifier(identifier);
     final List<CommandEntity> commands = this.commandRepository.findByAccount(accountEntity);
@@ -22,6 +22,7 @@ import org.apache.fineract.cn.accounting.api.v1.domain.AccountType;
 import org.apache.fineract.cn.accounting.api.v1.domain.financial.statement.FinancialCondition;
 import org.apache.fineract.cn.accounting.api.v1.domain.financial.statement.FinancialConditionEntry;
 import org.apache.fineract.cn.accounting.api.v1.domain.financial.statement.FinancialConditionSection;
+import org.apache.fineract.cn.accounting.service.internal.mapper.LedgerMapper;
 import org.apache.fineract.cn.accounting.service.internal.repository.LedgerRepository;
 import java.math.BigDecimal;
 import java.time.Clock;
@@ -73,7 +74,7 @@ public class FinancialConditionService {
       this.ledgerRepository.findByParentLedgerOrderByIdentifier(ledgerEntity).forEach(subLedgerEntity -> {
         final FinancialConditionEntry financialConditionEntry = new FinancialConditionEntry();
         financialConditionEntry.setDescription(subLedgerEntity.getName());
-        final BigDecimal totalValue = subLedgerEntity.getTotalValue() != null ? subLedgerEntity.getTotalValue() : BigDecimal.ZERO;
+        final BigDecimal totalValue = LedgerMapper.mapTotalValue(subLedgerEntity);
         financialConditionEntry.setValue(totalValue);
         financialConditionSection.add(financialConditionEntry);
       });
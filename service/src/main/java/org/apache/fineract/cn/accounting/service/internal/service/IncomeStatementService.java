@@ -22,6 +22,7 @@ import org.apache.fineract.cn.accounting.api.v1.domain.AccountType;
 import org.apache.fineract.cn.accounting.api.v1.domain.financial.statement.IncomeStatement;
 import org.apache.fineract.cn.accounting.api.v1.domain.financial.statement.IncomeStatementEntry;
 import org.apache.fineract.cn.accounting.api.v1.domain.financial.statement.IncomeStatementSection;
+import org.apache.fineract.cn.accounting.service.internal.mapper.LedgerMapper;
 import org.apache.fineract.cn.accounting.service.internal.repository.LedgerRepository;
 import java.math.BigDecimal;
 import java.time.Clock;
@@ -66,7 +67,7 @@ public class IncomeStatementService {
       this.ledgerRepository.findByParentLedgerOrderByIdentifier(ledgerEntity).forEach(subLedgerEntity -> {
         final IncomeStatementEntry incomeStatementEntry = new IncomeStatementEntry();
         incomeStatementEntry.setDescription(subLedgerEntity.getName());
-        final BigDecimal totalValue = subLedgerEntity.getTotalValue() != null ? subLedgerEntity.getTotalValue() : BigDecimal.ZERO;
+        final BigDecimal totalValue = LedgerMapper.mapTotalValue(subLedgerEntity);
         incomeStatementEntry.setValue(totalValue);
         incomeStatementSection.add(incomeStatementEntry);
       });
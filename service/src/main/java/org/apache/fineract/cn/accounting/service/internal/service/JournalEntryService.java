@@ -19,20 +19,24 @@
 package org.apache.fineract.cn.accounting.service.internal.service;
 
 import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntryPage;
 import org.apache.fineract.cn.accounting.service.ServiceConstants;
 import org.apache.fineract.cn.accounting.service.internal.mapper.JournalEntryMapper;
 import org.apache.fineract.cn.accounting.service.internal.repository.DebtorType;
+import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryChunk;
 import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryRepository;
-import org.apache.fineract.cn.accounting.service.internal.repository.TransactionTypeEntity;
-import org.apache.fineract.cn.accounting.service.internal.repository.TransactionTypeRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.TransactionIdentifierFilter;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.fineract.cn.lang.DateRange;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,69 +46,141 @@ import org.springframework.stereotype.Service;
 @Service
 public class JournalEntryService {
 
+  private static final int STREAM_PAGE_SIZE = 500;
+
   private Logger logger;
   private final JournalEntryRepository journalEntryRepository;
-  private final TransactionTypeRepository transactionTypeRepository;
+  private final TransactionTypeCache transactionTypeCache;
+  private final TransactionIdentifierFilter transactionIdentifierFilter;
 
   @Autowired
   public JournalEntryService(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                              final JournalEntryRepository journalEntryRepository,
-                             final TransactionTypeRepository transactionTypeRepository) {
+                             final TransactionTypeCache transactionTypeCache,
+                             final TransactionIdentifierFilter transactionIdentifierFilter) {
     super();
     this.logger = logger;
     this.journalEntryRepository = journalEntryRepository;
-    this.transactionTypeRepository = transactionTypeRepository;
+    this.transactionTypeCache = transactionTypeCache;
+    this.transactionIdentifierFilter = transactionIdentifierFilter;
   }
 
   public List<JournalEntry> fetchJournalEntries(final DateRange range, final String accountNumber, final BigDecimal amount) {
-    final List<JournalEntryEntity> journalEntryEntities =
-        this.journalEntryRepository.fetchJournalEntries(range);
+    // account scoped queries only read the partitions of the account index
+    final List<JournalEntryEntity> journalEntryEntities = accountNumber != null
+        ? this.journalEntryRepository.fetchJournalEntries(range, accountNumber)
+        : this.journalEntryRepository.fetchJournalEntries(range);
 
     if (journalEntryEntities != null) {
-
-      final List<JournalEntryEntity> filteredList =
+      return this.map(
           journalEntryEntities
               .stream()
-              .filter(journalEntryEntity ->
-                  accountNumber == null
-                      || journalEntryEntity.getDebtors().stream()
-                          .anyMatch(debtorType -> debtorType.getAccountNumber().equals(accountNumber))
-                      || journalEntryEntity.getCreditors().stream()
-                          .anyMatch(creditorType -> creditorType.getAccountNumber().equals(accountNumber))
-              )
-              .filter(journalEntryEntity ->
-                  amount == null
-                      || amount.compareTo(
-                          BigDecimal.valueOf(
-                              journalEntryEntity.getDebtors().stream().mapToDouble(DebtorType::getAmount).sum()
-                          )
-                  ) == 0
-              )
-              .sorted(Comparator.comparing(JournalEntryEntity::getTransactionDate))
-              .collect(Collectors.toList());
-
-      final List<TransactionTypeEntity> transactionTypes = this.transactionTypeRepository.findAll();
-      final HashMap<String, String> mappedTransactionTypes = new HashMap<>(transactionTypes.size());
-      transactionTypes.forEach(transactionTypeEntity ->
-          mappedTransactionTypes.put(transactionTypeEntity.getIdentifier(), transactionTypeEntity.getName())
-      );
-
-      return filteredList
-          .stream()
-          .map(journalEntryEntity -> {
-            final JournalEntry journalEntry = JournalEntryMapper.map(journalEntryEntity);
-            journalEntry.setTransactionType(mappedTransactionTypes.get(journalEntry.getTransactionType()));
-            return journalEntry;
-          })
-          .collect(Collectors.toList());
+              .filter(journalEntryEntity -> JournalEntryService.matches(journalEntryEntity, accountNumber, amount)));
     } else {
       return Collections.emptyList();
     }
   }
 
+  /**
+   * Returns one page of the range, entries not matching the filters are skipped, so pages may hold less than the
+   * page size. Only a page without next cursor ends the range. Pages of an account follow its index in month order,
+   * all other pages follow date bucket order; cursors of the one are not valid for the other.
+   *
+   * @throws IllegalArgumentException if the cursor is invalid for the range
+   */
+  public JournalEntryPage fetchJournalEntryPage(final DateRange range,
+                                                final String accountNumber,
+                                                final BigDecimal amount,
+                                                final String cursor,
+                                                final int pageSize) {
+    // account scoped pages only read the partitions of the account index
+    final JournalEntryChunk journalEntryChunk = accountNumber != null
+        ? this.journalEntryRepository.fetchJournalEntries(range, accountNumber, cursor, pageSize)
+        : this.journalEntryRepository.fetchJournalEntries(range, cursor, pageSize);
+
+    final JournalEntryPage journalEntryPage = new JournalEntryPage();
+    journalEntryPage.setJournalEntries(this.map(
+        journalEntryChunk.getJournalEntryEntities()
+            .stream()
+            .filter(journalEntryEntity -> JournalEntryService.matches(journalEntryEntity, accountNumber, amount))));
+    journalEntryPage.setNextCursor(journalEntryChunk.getNextCursor());
+    return journalEntryPage;
+  }
+
+  /**
+   * Hands the matching entries of the range to the consumer page by page, so no more than one page is held in
+   * memory. Pages follow date bucket order, within a day entries are not ordered by transaction date. Exceptions
+   * thrown by the consumer end the stream.
+   */
+  public void streamJournalEntries(final DateRange range,
+                                   final String accountNumber,
+                                   final BigDecimal amount,
+                                   final Consumer<List<JournalEntry>> consumer) {
+    if (accountNumber != null) {
+      // the account index is read in one go, the entries of a single account are comparatively few
+      consumer.accept(this.fetchJournalEntries(range, accountNumber, amount));
+      return;
+    }
+
+    String cursor = null;
+    do {
+      final JournalEntryChunk journalEntryChunk =
+          this.journalEntryRepository.fetchJournalEntries(range, cursor, STREAM_PAGE_SIZE);
+      consumer.accept(this.map(
+          journalEntryChunk.getJournalEntryEntities()
+              .stream()
+              .filter(journalEntryEntity -> JournalEntryService.matches(journalEntryEntity, null, amount))));
+      cursor = journalEntryChunk.getNextCursor();
+    } while (cursor != null);
+  }
+
   public Optional<JournalEntry> findJournalEntry(final String transactionIdentifier) {
     final Optional<JournalEntryEntity> optionalJournalEntryEntity = this.journalEntryRepository.findJournalEntry(transactionIdentifier);
 
     return optionalJournalEntryEntity.map(JournalEntryMapper::map);
   }
+
+  public boolean journalEntryExists(final String transactionIdentifier) {
+    return !this.findExistingTransactionIdentifiers(Collections.singleton(transactionIdentifier)).isEmpty();
+  }
+
+  private List<JournalEntry> map(final Stream<JournalEntryEntity> journalEntryEntities) {
+    final Map<String, String> mappedTransactionTypes = this.transactionTypeCache.names();
+
+    return journalEntryEntities
+        .map(journalEntryEntity -> {
+          final JournalEntry journalEntry = JournalEntryMapper.map(journalEntryEntity);
+          journalEntry.setTransactionType(mappedTransactionTypes.get(journalEntry.getTransactionType()));
+          return journalEntry;
+        })
+        .collect(Collectors.toList());
+  }
+
+  private static boolean matches(final JournalEntryEntity journalEntryEntity,
+                                 final String accountNumber,
+                                 final BigDecimal amount) {
+    return (accountNumber == null
+        || journalEntryEntity.getDebtors().stream()
+            .anyMatch(debtorType -> debtorType.getAccountNumber().equals(accountNumber))
+        || journalEntryEntity.getCreditors().stream()
+            .anyMatch(creditorType -> creditorType.getAccountNumber().equals(accountNumber)))
+        && (amount == null
+        || amount.compareTo(
+            BigDecimal.valueOf(
+                journalEntryEntity.getDebtors().stream().mapToDouble(DebtorType::getAmount).sum()
+            )
+        ) == 0);
+  }
+
+  public Set<String> findExistingTransactionIdentifiers(final Collection<String> transactionIdentifiers) {
+    // the filter only rules identifiers out, all it might know are looked up in Cassandra
+    final List<String> candidates = transactionIdentifiers
+        .stream()
+        .filter(this.transactionIdentifierFilter::mightContain)
+        .collect(Collectors.toList());
+    if (candidates.isEmpty()) {
+      return Collections.emptySet();
+    }
+    return this.journalEntryRepository.findExistingTransactionIdentifiers(candidates);
+  }
 }
@@ -28,10 +28,13 @@ import org.apache.fineract.cn.accounting.service.internal.repository.AccountEnti
 import org.apache.fineract.cn.accounting.service.internal.repository.AccountRepository;
 import org.apache.fineract.cn.accounting.service.internal.repository.LedgerEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.LedgerRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.SpecificationSliceExecutor;
 import org.apache.fineract.cn.accounting.service.internal.repository.specification.LedgerSpecification;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -43,27 +46,36 @@ public class LedgerService {
 
   private final LedgerRepository ledgerRepository;
   private final AccountRepository accountRepository;
+  private final SpecificationSliceExecutor specificationSliceExecutor;
 
   @Autowired
   public LedgerService(final LedgerRepository ledgerRepository,
-                       final AccountRepository accountRepository) {
+                       final AccountRepository accountRepository,
+                       final SpecificationSliceExecutor specificationSliceExecutor) {
     super();
     this.ledgerRepository = ledgerRepository;
     this.accountRepository = accountRepository;
+    this.specificationSliceExecutor = specificationSliceExecutor;
   }
 
   public LedgerPage fetchLedgers(final boolean includeSubLedgers,
                                  final String term,
                                  final String type,
-                                 final Pageable pageable) {
+                                 final Pageable pageable,
+                                 final boolean slice) {
     final LedgerPage ledgerPage = new LedgerPage();
 
-    final Page<LedgerEntity> ledgerEntities = this.ledgerRepository.findAll(
-        LedgerSpecification.createSpecification(includeSubLedgers, term, type), pageable
-    );
+    final Specification<LedgerEntity> specification =
+        LedgerSpecification.createSpecification(includeSubLedgers, term, type);
+    final Slice<LedgerEntity> ledgerEntities = slice
+        ? this.specificationSliceExecutor.findSlice(LedgerEntity.class, specification, pageable)
+        : this.ledgerRepository.findAll(specification, pageable);
 
-    ledgerPage.setTotalPages(ledgerEntities.getTotalPages());
-    ledgerPage.setTotalElements(ledgerEntities.getTotalElements());
+    if (ledgerEntities instanceof Page) {
+      ledgerPage.setTotalPages(((Page<LedgerEntity>) ledgerEntities).getTotalPages());
+      ledgerPage.setTotalElements(((Page<LedgerEntity>) ledgerEntities).getTotalElements());
+    }
+    ledgerPage.setHasNextPage(ledgerEntities.hasNext());
 
     ledgerPage.setLedgers(this.mapToLedger(ledgerEntities.getContent()));
 
@@ -95,13 +107,18 @@ public class LedgerService {
     }
   }
 
-  public AccountPage fetchAccounts(final String ledgerIdentifier, final Pageable pageable) {
+  public AccountPage fetchAccounts(final String ledgerIdentifier, final Pageable pageable, final boolean slice) {
     final LedgerEntity ledgerEntity = this.ledgerRepository.findByIdentifier(ledgerIdentifier);
-    final Page<AccountEntity> accountEntities = this.accountRepository.findByLedger(ledgerEntity, pageable);
+    final Slice<AccountEntity> accountEntities = slice
+        ? this.accountRepository.findSliceByLedger(ledgerEntity, pageable)
+        : this.accountRepository.findByLedger(ledgerEntity, pageable);
 
     final AccountPage accountPage = new AccountPage();
-    accountPage.setTotalPages(accountEntities.getTotalPages());
-    accountPage.setTotalElements(accountEntities.getTotalElements());
+    if (accountEntities instanceof Page) {
+      accountPage.setTotalPages(((Page<AccountEntity>) accountEntities).getTotalPages());
+      accountPage.setTotalElements(((Page<AccountEntity>) accountEntities).getTotalElements());
+    }
+    accountPage.setHasNextPage(accountEntities.hasNext());
 
     if(accountEntities.getSize() > 0){
       final List<Account> accounts = new ArrayList<>(accountEntities.getSize());
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.service;
+
+import org.apache.fineract.cn.accounting.api.v1.domain.TransactionType;
+import org.apache.fineract.cn.accounting.service.internal.mapper.TransactionTypeMapper;
+import org.apache.fineract.cn.accounting.service.internal.repository.TransactionTypeEntity;
+import org.apache.fineract.cn.accounting.service.internal.repository.TransactionTypeRepository;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per tenant snapshot of all transaction types, loaded on first use.
+ *
+ * <p>Snapshots are never modified. Changes of this node replace them with an updated copy once
+ * committed, the transaction type events of all nodes drop them, so the next use reloads.</p>
+ */
+@Component
+public class TransactionTypeCache {
+
+  private final TransactionTypeRepository transactionTypeRepository;
+  private final ConcurrentHashMap<String, TenantTransactionTypes> tenantTransactionTypes = new ConcurrentHashMap<>();
+
+  @Autowired
+  public TransactionTypeCache(final TransactionTypeRepository transactionTypeRepository) {
+    super();
+    this.transactionTypeRepository = transactionTypeRepository;
+  }
+
+  public Optional<TransactionType> find(final String identifier) {
+    return Optional.ofNullable(this.transactionTypes().get(identifier)).map(TransactionTypeCache::copy);
+  }
+
+  /**
+   * Returns the names of the current tenant's transaction types by identifier, the map must not be modified.
+   */
+  public Map<String, String> names() {
+    return this.transactionTypes().names;
+  }
+
+  /**
+   * Puts the transaction type into the snapshot of the current tenant, after the surrounding transaction committed.
+   */
+  public void put(final TransactionTypeEntity transactionTypeEntity) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final TransactionType transactionType = TransactionTypeMapper.map(transactionTypeEntity);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          TransactionTypeCache.this.put(tenantIdentifier, transactionType);
+        }
+      });
+    } else {
+      this.put(tenantIdentifier, transactionType);
+    }
+  }
+
+  public void invalidate(final String tenantIdentifier) {
+    final TenantTransactionTypes tenantTransactionTypes = this.tenantTransactionTypes.get(tenantIdentifier);
+    if (tenantTransactionTypes != null) {
+      synchronized (tenantTransactionTypes) {
+        tenantTransactionTypes.snapshot = null;
+        tenantTransactionTypes.generation++;
+      }
+    }
+  }
+
+  private Snapshot transactionTypes() {
+    final TenantTransactionTypes tenantTransactionTypes = this.tenantTransactionTypes
+        .computeIfAbsent(TenantContextHolder.checkedGetIdentifier(), tenant -> new TenantTransactionTypes());
+    final Snapshot snapshot = tenantTransactionTypes.snapshot;
+    if (snapshot != null) {
+      return snapshot;
+    }
+
+    final long generation;
+    synchronized (tenantTransactionTypes) {
+      generation = tenantTransactionTypes.generation;
+    }
+    final Map<String, TransactionType> transactionTypes = new HashMap<>();
+    this.transactionTypeRepository.findAll().forEach(transactionTypeEntity ->
+        transactionTypes.put(transactionTypeEntity.getIdentifier(), TransactionTypeMapper.map(transactionTypeEntity)));
+    final Snapshot loadedSnapshot = new Snapshot(transactionTypes);
+    synchronized (tenantTransactionTypes) {
+      // skip caching if a transaction type changed while loading, the loaded state might be stale
+      if (tenantTransactionTypes.generation == generation) {
+        tenantTransactionTypes.snapshot = loadedSnapshot;
+      }
+    }
+    return loadedSnapshot;
+  }
+
+  private void put(final String tenantIdentifier, final TransactionType transactionType) {
+    final TenantTransactionTypes tenantTransactionTypes = this.tenantTransactionTypes.get(tenantIdentifier);
+    if (tenantTransactionTypes != null) {
+      synchronized (tenantTransactionTypes) {
+        if (tenantTransactionTypes.snapshot != null) {
+          final Map<String, TransactionType> transactionTypes =
+              new HashMap<>(tenantTransactionTypes.snapshot.transactionTypes);
+          transactionTypes.put(transactionType.getCode(), transactionType);
+          tenantTransactionTypes.snapshot = new Snapshot(transactionTypes);
+        }
+        tenantTransactionTypes.generation++;
+      }
+    }
+  }
+
+  private static TransactionType copy(final TransactionType transactionType) {
+    final TransactionType copy = new TransactionType();
+    copy.setCode(transactionType.getCode());
+    copy.setName(transactionType.getName());
+    copy.setDescription(transactionType.getDescription());
+    return copy;
+  }
+
+  private static class TenantTransactionTypes {
+    private volatile Snapshot snapshot;
+    private long generation;
+  }
+
+  private static class Snapshot {
+    private final Map<String, TransactionType> transactionTypes;
+    private final Map<String, String> names;
+
+    private Snapshot(final Map<String, TransactionType> transactionTypes) {
+      super();
+      this.transactionTypes = Collections.unmodifiableMap(transactionTypes);
+      final Map<String, String> names = new HashMap<>(transactionTypes.size());
+      transactionTypes.forEach((identifier, transactionType) -> names.put(identifier, transactionType.getName()));
+      this.names = Collections.unmodifiableMap(names);
+    }
+
+    private TransactionType get(final String identifier) {
+      return this.transactionTypes.get(identifier);
+    }
+  }
+}
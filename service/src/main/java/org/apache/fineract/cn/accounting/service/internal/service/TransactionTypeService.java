@@ -21,11 +21,13 @@ package org.apache.fineract.cn.accounting.service.internal.service;
 import org.apache.fineract.cn.accounting.api.v1.domain.TransactionType;
 import org.apache.fineract.cn.accounting.api.v1.domain.TransactionTypePage;
 import org.apache.fineract.cn.accounting.service.internal.mapper.TransactionTypeMapper;
+import org.apache.fineract.cn.accounting.service.internal.repository.SpecificationSliceExecutor;
 import org.apache.fineract.cn.accounting.service.internal.repository.TransactionTypeEntity;
 import org.apache.fineract.cn.accounting.service.internal.repository.TransactionTypeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -36,25 +38,37 @@ import java.util.Optional;
 public class TransactionTypeService {
 
   private final TransactionTypeRepository transactionTypeRepository;
+  private final TransactionTypeCache transactionTypeCache;
+  private final SpecificationSliceExecutor specificationSliceExecutor;
 
   @Autowired
-  public TransactionTypeService(final TransactionTypeRepository transactionTypeRepository) {
+  public TransactionTypeService(final TransactionTypeRepository transactionTypeRepository,
+                                final TransactionTypeCache transactionTypeCache,
+                                final SpecificationSliceExecutor specificationSliceExecutor) {
     super();
     this.transactionTypeRepository = transactionTypeRepository;
+    this.transactionTypeCache = transactionTypeCache;
+    this.specificationSliceExecutor = specificationSliceExecutor;
   }
 
-  public TransactionTypePage fetchTransactionTypes(final String term, final Pageable pageable) {
-    final Page<TransactionTypeEntity> transactionTypeEntityPage;
+  public TransactionTypePage fetchTransactionTypes(final String term, final Pageable pageable, final boolean slice) {
+    final Slice<TransactionTypeEntity> transactionTypeEntityPage;
     if (term != null) {
-      transactionTypeEntityPage =
-          this.transactionTypeRepository.findByIdentifierContainingOrNameContaining(term, term, pageable);
+      transactionTypeEntityPage = slice
+          ? this.transactionTypeRepository.findSliceByIdentifierContainingOrNameContaining(term, term, pageable)
+          : this.transactionTypeRepository.findByIdentifierContainingOrNameContaining(term, term, pageable);
     } else {
-      transactionTypeEntityPage = this.transactionTypeRepository.findAll(pageable);
+      transactionTypeEntityPage = slice
+          ? this.specificationSliceExecutor.findSlice(TransactionTypeEntity.class, null, pageable)
+          : this.transactionTypeRepository.findAll(pageable);
     }
 
     final TransactionTypePage transactionTypePage = new TransactionTypePage();
-    transactionTypePage.setTotalElements(transactionTypeEntityPage.getTotalElements());
-    transactionTypePage.setTotalPages(transactionTypeEntityPage.getTotalPages());
+    if (transactionTypeEntityPage instanceof Page) {
+      transactionTypePage.setTotalElements(((Page<TransactionTypeEntity>) transactionTypeEntityPage).getTotalElements());
+      transactionTypePage.setTotalPages(((Page<TransactionTypeEntity>) transactionTypeEntityPage).getTotalPages());
+    }
+    transactionTypePage.setHasNextPage(transactionTypeEntityPage.hasNext());
 
     transactionTypePage.setTransactionTypes(new ArrayList<>(transactionTypeEntityPage.getSize()));
     transactionTypeEntityPage.forEach(transactionTypeEntity ->
@@ -64,6 +78,6 @@ public class TransactionTypeService {
   }
 
   public Optional<TransactionType> findByIdentifier(final String identifier) {
-    return this.transactionTypeRepository.findByIdentifier(identifier).map(TransactionTypeMapper::map);
+    return this.transactionTypeCache.find(identifier);
   }
 }
@@ -44,7 +44,7 @@ public class TrialBalanceService {
     final TrialBalance trialBalance = new TrialBalance();
     this.ledgerRepository.findByParentLedgerIsNull().forEach(ledgerEntity ->
       this.ledgerRepository.findByParentLedgerOrderByIdentifier(ledgerEntity).forEach(subLedger -> {
-        final BigDecimal totalValue = subLedger.getTotalValue() != null ? subLedger.getTotalValue() : BigDecimal.ZERO;
+        final BigDecimal totalValue = LedgerMapper.mapTotalValue(subLedger);
         if (!includeEmptyEntries && totalValue.compareTo(BigDecimal.ZERO) == 0) {
           return;
         }
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.tenant;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+
+/**
+ * Keeps track of the tenants this instance has served, so background tasks know which
+ * tenant schemas they have to visit.
+ */
+public class ActiveTenants {
+
+  private final Set<String> identifiers = ConcurrentHashMap.newKeySet();
+
+  public ActiveTenants() {
+    super();
+  }
+
+  public void add(final String identifier) {
+    this.identifiers.add(identifier);
+  }
+
+  public void forEachTenant(final Consumer<String> action) {
+    // the tenant of the calling thread, if any, is restored afterwards
+    final Optional<String> callingTenant = TenantContextHolder.identifier();
+    this.identifiers.forEach(identifier -> {
+      TenantContextHolder.clear();
+      TenantContextHolder.setIdentifier(identifier);
+      try {
+        action.accept(identifier);
+      } finally {
+        TenantContextHolder.clear();
+      }
+    });
+    callingTenant.ifPresent(TenantContextHolder::setIdentifier);
+  }
+}
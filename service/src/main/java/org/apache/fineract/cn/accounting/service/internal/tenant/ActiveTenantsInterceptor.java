@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.tenant;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+public class ActiveTenantsInterceptor extends HandlerInterceptorAdapter {
+
+  private final ActiveTenants activeTenants;
+
+  public ActiveTenantsInterceptor(final ActiveTenants activeTenants) {
+    super();
+    this.activeTenants = activeTenants;
+  }
+
+  @Override
+  public boolean preHandle(final HttpServletRequest request,
+                           final HttpServletResponse response,
+                           final Object handler) {
+    TenantContextHolder.identifier().ifPresent(this.activeTenants::add);
+    return true;
+  }
+}
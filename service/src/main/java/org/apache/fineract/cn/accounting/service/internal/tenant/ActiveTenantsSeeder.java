@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.tenant;
+
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import org.apache.fineract.cn.cassandra.core.CassandraSessionProvider;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds {@link ActiveTenants} at startup with every tenant the accounting schema has been initialized for, so
+ * background tasks also visit tenants that send no request after a restart.
+ */
+@Component
+public class ActiveTenantsSeeder {
+
+  static final String INITIALIZED_TABLE = "thoth_journal_entry_lookup";
+
+  private final Logger logger;
+  private final ActiveTenants activeTenants;
+  private final CassandraSessionProvider cassandraSessionProvider;
+
+  @Autowired
+  public ActiveTenantsSeeder(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                             final ActiveTenants activeTenants,
+                             final CassandraSessionProvider cassandraSessionProvider) {
+    super();
+    this.logger = logger;
+    this.activeTenants = activeTenants;
+    this.cassandraSessionProvider = cassandraSessionProvider;
+  }
+
+  // runs before the listeners starting background tasks
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @EventListener(ApplicationReadyEvent.class)
+  public void seed() {
+    try {
+      final Session adminSession = this.cassandraSessionProvider.getAdminSession();
+      final Metadata metadata = adminSession.getCluster().getMetadata();
+      int seeded = 0;
+      for (final Row row : adminSession.execute("SELECT identifier, keyspace_name FROM tenants")) {
+        final KeyspaceMetadata keyspaceMetadata = metadata.getKeyspace(row.getString("keyspace_name"));
+        if (keyspaceMetadata != null && keyspaceMetadata.getTable(INITIALIZED_TABLE) != null) {
+          this.activeTenants.add(row.getString("identifier"));
+          seeded++;
+        }
+      }
+      this.logger.info("Seeded {} active tenants.", seeded);
+    } catch (final RuntimeException ex) {
+      // background tasks still pick up tenants as they send requests
+      this.logger.warn("Could not seed active tenants.", ex);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point amounts stored as a long count of minor units, using the scale of the NUMERIC(15, 5) columns
+ * amounts and balances are persisted in.
+ */
+public final class Money {
+
+  public static final int SCALE = 5;
+
+  private static final long UNIT = 100000L;
+  private static final long MAX_UNITS = 999999999999999L;
+
+  private Money() {
+    super();
+  }
+
+  /**
+   * Parses the given decimal, failing with an {@link ArithmeticException} if it has more than {@link #SCALE}
+   * significant fraction digits or does not fit into NUMERIC(15, 5).
+   */
+  public static long parse(final String value) {
+    final int length = value.length();
+    int index = 0;
+    boolean negative = false;
+    if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+      negative = value.charAt(0) == '-';
+      index++;
+    }
+
+    long units = 0L;
+    int fractionDigits = -1;
+    boolean hasDigits = false;
+    for (; index < length; index++) {
+      final char c = value.charAt(index);
+      if (c == '.' && fractionDigits < 0) {
+        fractionDigits = 0;
+        continue;
+      }
+      if (c < '0' || c > '9') {
+        // exponents and other notations are left to BigDecimal
+        return valueOf(new BigDecimal(value));
+      }
+      hasDigits = true;
+      if (fractionDigits == SCALE) {
+        if (c != '0') {
+          throw new ArithmeticException("Amount " + value + " exceeds scale " + SCALE + ".");
+        }
+        continue;
+      }
+      if (fractionDigits >= 0) {
+        fractionDigits++;
+      }
+      units = units * 10L + (c - '0');
+      if (units > MAX_UNITS) {
+        throw new ArithmeticException("Amount " + value + " out of range.");
+      }
+    }
+    if (!hasDigits) {
+      throw new NumberFormatException("Amount " + value + " is not a number.");
+    }
+
+    for (int i = Math.max(fractionDigits, 0); i < SCALE; i++) {
+      units *= 10L;
+      if (units > MAX_UNITS) {
+        throw new ArithmeticException("Amount " + value + " out of range.");
+      }
+    }
+    return negative ? -units : units;
+  }
+
+  public static long valueOf(final BigDecimal value) {
+    if (value.abs().compareTo(toBigDecimal(MAX_UNITS)) > 0) {
+      throw new ArithmeticException("Amount " + value + " out of range.");
+    }
+    return value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValue();
+  }
+
+  /**
+   * Rounds the given double to the nearest minor unit. Every value persisted as NUMERIC(15, 5) has at most
+   * 15 significant digits and therefore survives the round trip through a double unchanged.
+   */
+  public static long valueOf(final double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new ArithmeticException("Amount " + value + " is not finite.");
+    }
+    final double scaled = value * UNIT;
+    if (Math.abs(scaled) > MAX_UNITS) {
+      throw new ArithmeticException("Amount " + value + " out of range.");
+    }
+    return Math.round(scaled);
+  }
+
+  public static long add(final long units, final long otherUnits) {
+    final long sum = units + otherUnits;
+    if (Math.abs(sum) > MAX_UNITS) {
+      throw new ArithmeticException("Amount out of range.");
+    }
+    return sum;
+  }
+
+  public static double toDouble(final long units) {
+    // both operands are exact, so the quotient is the double nearest to the decimal value
+    return units / (double) UNIT;
+  }
+
+  public static BigDecimal toBigDecimal(final long units) {
+    return BigDecimal.valueOf(units, SCALE);
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.fineract.cn.accounting.service.rest;
 import org.apache.fineract.cn.accounting.api.v1.PermittableGroupIds;
 import org.apache.fineract.cn.accounting.api.v1.client.AccountNotFoundException;
 import org.apache.fineract.cn.accounting.api.v1.domain.Account;
+import org.apache.fineract.cn.accounting.api.v1.domain.AccountBalance;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountCommand;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountEntryPage;
 import org.apache.fineract.cn.accounting.api.v1.domain.AccountPage;
@@ -35,6 +36,9 @@ import org.apache.fineract.cn.accounting.service.internal.command.UnlockAccountC
 import org.apache.fineract.cn.accounting.service.internal.service.AccountService;
 import org.apache.fineract.cn.accounting.service.internal.service.LedgerService;
 import org.apache.fineract.cn.accounting.service.rest.paging.PageableBuilder;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nullable;
@@ -43,9 +47,11 @@ import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.annotation.Permittable;
 import org.apache.fineract.cn.api.annotation.ThrowsException;
 import org.apache.fineract.cn.command.gateway.CommandGateway;
+import org.apache.fineract.cn.lang.DateConverter;
 import org.apache.fineract.cn.lang.DateRange;
 import org.apache.fineract.cn.lang.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -65,15 +71,18 @@ public class AccountRestController {
   private final CommandGateway commandGateway;
   private final AccountService accountService;
   private final LedgerService ledgerService;
+  private final Integer maxPageSize;
 
   @Autowired
   public AccountRestController(final CommandGateway commandGateway,
                                final AccountService accountService,
-                               final LedgerService ledgerService) {
+                               final LedgerService ledgerService,
+                               @Value("${accounting.account.maxPageSize:1000}") final Integer maxPageSize) {
     super();
     this.commandGateway = commandGateway;
     this.accountService = accountService;
     this.ledgerService = ledgerService;
+    this.maxPageSize = maxPageSize;
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_ACCOUNT)
@@ -116,11 +125,12 @@ public class AccountRestController {
       @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
       @RequestParam(value = "size", required = false) final Integer size,
       @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-      @RequestParam(value = "sortDirection", required = false) final String sortDirection
+      @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+      @RequestParam(value = "slice", required = false, defaultValue = "false") final boolean slice
   ) {
     return ResponseEntity.ok(
         this.accountService.fetchAccounts(
-            includeClosed, term, type, includeCustomerAccounts, PageableBuilder.create(pageIndex, size, sortColumn, sortDirection)
+            includeClosed, term, type, includeCustomerAccounts, PageableBuilder.create(pageIndex, size, sortColumn, sortDirection), slice
         )
     );
   }
@@ -188,7 +198,8 @@ public class AccountRestController {
       @RequestParam(value = "pageIndex", required = false) @Nullable final Integer pageIndex,
       @RequestParam(value = "size", required = false) @Nullable final Integer size,
       @RequestParam(value = "sortColumn", required = false) @Nullable final String sortColumn,
-      @RequestParam(value = "sortDirection", required = false) @Nullable final String sortDirection
+      @RequestParam(value = "sortDirection", required = false) @Nullable final String sortDirection,
+      @RequestParam(value = "slice", required = false, defaultValue = "false") final boolean slice
   ) {
     final DateRange range = DateRange.fromIsoString(dateRange);
 
@@ -196,7 +207,77 @@ public class AccountRestController {
         identifier,
         range,
         message,
-        PageableBuilder.create(pageIndex, size, sortColumn == null ? "transactionDate" : sortColumn, sortDirection)));
+        PageableBuilder.create(pageIndex, size, sortColumn == null ? "transactionDate" : sortColumn, sortDirection),
+        slice));
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_ACCOUNT)
+  @RequestMapping(
+      value = "/{identifier}/entries",
+      method = RequestMethod.GET,
+      params = "pageSize",
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.ALL_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = AccountNotFoundException.class)
+  @ResponseBody
+  ResponseEntity<AccountEntryPage> fetchAccountEntryPage(
+      @PathVariable("identifier") final String identifier,
+      @RequestParam(value = "dateRange", required = false) @Nullable final String dateRange,
+      @RequestParam(value = "message", required = false) @Nullable final String message,
+      @RequestParam(value = "cursor", required = false) @Nullable final String cursor,
+      @RequestParam(value = "pageSize") final Integer pageSize,
+      @RequestParam(value = "sortDirection", required = false) @Nullable final String sortDirection
+  ) {
+    if (pageSize < 1 || pageSize > this.maxPageSize) {
+      throw ServiceException.badRequest("Page size must be between 1 and {0}.", this.maxPageSize);
+    }
+    if (!this.accountService.findAccount(identifier).isPresent()) {
+      throw ServiceException.notFound("Account {0} not found.", identifier);
+    }
+    final DateRange range = DateRange.fromIsoString(dateRange);
+
+    try {
+      return ResponseEntity.ok(this.accountService.fetchAccountEntryPage(
+          identifier, range, message, cursor, pageSize, "DESC".equalsIgnoreCase(sortDirection)));
+    } catch (final IllegalArgumentException ex) {
+      throw ServiceException.badRequest(ex.getMessage());
+    }
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_ACCOUNT)
+  @RequestMapping(
+      value = "/{identifier}/balance",
+      method = RequestMethod.GET,
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.ALL_VALUE}
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = AccountNotFoundException.class)
+  @ResponseBody
+  ResponseEntity<AccountBalance> findAccountBalance(@PathVariable("identifier") final String identifier,
+                                                    @RequestParam(value = "asOf") final String asOf) {
+    final LocalDateTime asOfDateTime = this.parseAsOf(asOf);
+    if (!this.accountService.findAccount(identifier).isPresent()) {
+      throw ServiceException.notFound("Account {0} not found.", identifier);
+    }
+    return ResponseEntity.ok(this.accountService.findAccountBalance(identifier, asOfDateTime));
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_ACCOUNT)
+  @RequestMapping(
+      value = "/balances",
+      method = RequestMethod.POST,
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ResponseBody
+  ResponseEntity<List<AccountBalance>> fetchAccountBalances(@RequestParam(value = "asOf") final String asOf,
+                                                            @RequestBody final List<String> identifiers) {
+    final LocalDateTime asOfDateTime = this.parseAsOf(asOf);
+    if (identifiers.isEmpty()) {
+      return ResponseEntity.ok(Collections.emptyList());
+    }
+    return ResponseEntity.ok(this.accountService.fetchAccountBalances(identifiers, asOfDateTime));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_ACCOUNT)
@@ -320,4 +401,12 @@ public class AccountRestController {
       }
     }
   }
+
+  private LocalDateTime parseAsOf(final String asOf) {
+    try {
+      return DateConverter.fromIsoString(asOf);
+    } catch (final DateTimeParseException ex) {
+      throw ServiceException.badRequest("Invalid date {0}.", asOf);
+    }
+  }
 }
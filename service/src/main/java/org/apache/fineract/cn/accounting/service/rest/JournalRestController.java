@@ -20,20 +20,47 @@ package org.apache.fineract.cn.accounting.service.rest;
 
 import org.apache.fineract.cn.accounting.api.v1.PermittableGroupIds;
 import org.apache.fineract.cn.accounting.api.v1.domain.Account;
+import org.apache.fineract.cn.accounting.api.v1.domain.Creditor;
+import org.apache.fineract.cn.accounting.api.v1.domain.Debtor;
 import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntryPage;
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntryResult;
+import org.apache.fineract.cn.accounting.service.ServiceConstants;
+import org.apache.fineract.cn.accounting.service.internal.command.CreateJournalEntriesCommand;
 import org.apache.fineract.cn.accounting.service.internal.command.CreateJournalEntryCommand;
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountProjection;
 import org.apache.fineract.cn.accounting.service.internal.service.AccountService;
 import org.apache.fineract.cn.accounting.service.internal.service.JournalEntryService;
+import org.apache.fineract.cn.accounting.service.internal.util.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validation;
+import javax.validation.Validator;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.annotation.Permittable;
 import org.apache.fineract.cn.command.gateway.CommandGateway;
 import org.apache.fineract.cn.lang.DateRange;
 import org.apache.fineract.cn.lang.ServiceException;
+import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -49,18 +76,33 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/journal")
 public class JournalRestController {
 
+  private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+  private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+  private final Logger logger;
   private final CommandGateway commandGateway;
   private final JournalEntryService journalEntryService;
   private final AccountService accountService;
+  private final Integer maxBatchSize;
+  private final Integer maxPageSize;
+  private final ObjectMapper objectMapper;
 
   @Autowired
-  public JournalRestController(final CommandGateway commandGateway,
+  public JournalRestController(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                               final CommandGateway commandGateway,
                                final JournalEntryService journalEntryService,
-                               final AccountService accountService) {
+                               final AccountService accountService,
+                               final ObjectMapper objectMapper,
+                               @Value("${accounting.journal.maxBatchSize:1000}") final Integer maxBatchSize,
+                               @Value("${accounting.journal.maxPageSize:1000}") final Integer maxPageSize) {
     super();
+    this.logger = logger;
     this.commandGateway = commandGateway;
     this.journalEntryService = journalEntryService;
     this.accountService = accountService;
+    this.maxBatchSize = maxBatchSize;
+    this.maxPageSize = maxPageSize;
+    this.objectMapper = objectMapper;
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
@@ -71,52 +113,84 @@ public class JournalRestController {
   )
   @ResponseBody
   ResponseEntity<Void> createJournalEntry(@RequestBody @Valid final JournalEntry journalEntry) {
-    if (this.journalEntryService.findJournalEntry(journalEntry.getTransactionIdentifier()).isPresent()) {
+    if (this.journalEntryService.journalEntryExists(journalEntry.getTransactionIdentifier())) {
       throw ServiceException.conflict("Journal entry {0} already exists.", journalEntry.getTransactionIdentifier());
     }
 
-    if (journalEntry.getDebtors().size() == 0) {
-      throw ServiceException.badRequest("Debtors must be given.");
+    final Set<String> accountNumbers = new HashSet<>();
+    JournalRestController.collectAccountNumbers(journalEntry, accountNumbers);
+    this.validateJournalEntry(journalEntry, this.accountService.findAccountProjections(accountNumbers));
+
+    this.commandGateway.process(new CreateJournalEntryCommand(journalEntry));
+    return ResponseEntity.accepted().build();
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
+  @RequestMapping(
+      value = "/batch",
+      method = RequestMethod.POST,
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE}
+  )
+  @ResponseBody
+  ResponseEntity<List<JournalEntryResult>> createJournalEntries(@RequestBody final List<JournalEntry> journalEntries) {
+    if (journalEntries.isEmpty()) {
+      throw ServiceException.badRequest("Journal entries must be given.");
     }
-    if (journalEntry.getCreditors().size() == 0) {
-      throw ServiceException.badRequest("Creditors must be given.");
+    if (journalEntries.size() > this.maxBatchSize) {
+      throw ServiceException.badRequest("At most {0} journal entries can be posted at once.", this.maxBatchSize);
     }
 
-    final Double debtorAmountSum = journalEntry.getDebtors()
-        .stream()
-        .peek(debtor -> {
-          final Optional<Account> accountOptional = this.accountService.findAccount(debtor.getAccountNumber());
-          if (!accountOptional.isPresent()) {
-            throw ServiceException.badRequest("Unknown debtor account{0}.", debtor.getAccountNumber());
-          }
-          if (!accountOptional.get().getState().equals(Account.State.OPEN.name())) {
-            throw ServiceException.conflict("Debtor account{0} must be in state open.", debtor.getAccountNumber());
-          }
-        })
-        .map(debtor -> Double.valueOf(debtor.getAmount()))
-        .reduce(0.0D, (x, y) -> x + y);
-
-    final Double creditorAmountSum = journalEntry.getCreditors()
-        .stream()
-        .peek(creditor -> {
-          final Optional<Account> accountOptional = this.accountService.findAccount(creditor.getAccountNumber());
-          if (!accountOptional.isPresent()) {
-            throw ServiceException.badRequest("Unknown creditor account{0}.", creditor.getAccountNumber());
-          }
-          if (!accountOptional.get().getState().equals(Account.State.OPEN.name())) {
-            throw ServiceException.conflict("Creditor account{0} must be in state open.", creditor.getAccountNumber());
-          }
-        })
-        .map(creditor -> Double.valueOf(creditor.getAmount()))
-        .reduce(0.0D, (x, y) -> x + y);
+    final Set<String> knownTransactionIdentifiers = new HashSet<>(
+        this.journalEntryService.findExistingTransactionIdentifiers(
+            journalEntries
+                .stream()
+                .map(JournalEntry::getTransactionIdentifier)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())
+        )
+    );
+    // all accounts of the batch are resolved at once, no matter how many entries reference them
+    final Set<String> accountNumbers = new HashSet<>();
+    journalEntries.forEach(journalEntry -> JournalRestController.collectAccountNumbers(journalEntry, accountNumbers));
+    final Map<String, AccountProjection> accounts = this.accountService.findAccountProjections(accountNumbers);
 
-    if (!debtorAmountSum.equals(creditorAmountSum)) {
-      throw ServiceException.conflict(
-          "Sum of debtor and sum of creditor amounts must be equals.");
+    final List<JournalEntry> acceptedJournalEntries = new ArrayList<>(journalEntries.size());
+    final List<JournalEntryResult> results = new ArrayList<>(journalEntries.size());
+    for (final JournalEntry journalEntry : journalEntries) {
+      final String transactionIdentifier = journalEntry.getTransactionIdentifier();
+
+      final Set<ConstraintViolation<JournalEntry>> violations = VALIDATOR.validate(journalEntry);
+      if (!violations.isEmpty()) {
+        results.add(new JournalEntryResult(transactionIdentifier, JournalEntryResult.Status.INVALID,
+            violations
+                .stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .collect(Collectors.joining(", "))));
+        continue;
+      }
+
+      if (knownTransactionIdentifiers.contains(transactionIdentifier)) {
+        results.add(new JournalEntryResult(transactionIdentifier, JournalEntryResult.Status.DUPLICATE,
+            MessageFormat.format("Journal entry {0} already exists.", transactionIdentifier)));
+        continue;
+      }
+
+      try {
+        this.validateJournalEntry(journalEntry, accounts);
+        knownTransactionIdentifiers.add(transactionIdentifier);
+        acceptedJournalEntries.add(journalEntry);
+        results.add(new JournalEntryResult(transactionIdentifier, JournalEntryResult.Status.ACCEPTED, null));
+      } catch (final ServiceException ex) {
+        results.add(new JournalEntryResult(transactionIdentifier, JournalEntryResult.Status.INVALID,
+            ex.serviceError().getMessage()));
+      }
     }
 
-    this.commandGateway.process(new CreateJournalEntryCommand(journalEntry));
-    return ResponseEntity.accepted().build();
+    if (!acceptedJournalEntries.isEmpty()) {
+      this.commandGateway.process(new CreateJournalEntriesCommand(acceptedJournalEntries));
+    }
+    return ResponseEntity.accepted().body(results);
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
@@ -136,6 +210,80 @@ public class JournalRestController {
     return ResponseEntity.ok(this.journalEntryService.fetchJournalEntries(range, accountNumber, amount));
   }
 
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
+  @RequestMapping(
+      method = RequestMethod.GET,
+      produces = {JournalRestController.APPLICATION_NDJSON_VALUE},
+      consumes = {MediaType.ALL_VALUE}
+  )
+  void streamJournalEntries(
+      @RequestParam(value = "dateRange", required = false) final String dateRange,
+      @RequestParam(value = "account", required = false) final String accountNumber,
+      @RequestParam(value = "amount", required = false) final BigDecimal amount,
+      final HttpServletResponse response
+  ) throws IOException {
+    final DateRange range = DateRange.fromIsoString(dateRange);
+
+    response.setContentType(JournalRestController.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    final OutputStream outputStream = response.getOutputStream();
+    try {
+      this.journalEntryService.streamJournalEntries(range, accountNumber, amount, journalEntries -> {
+        for (final JournalEntry journalEntry : journalEntries) {
+          final byte[] line;
+          try {
+            line = this.objectMapper.writeValueAsBytes(journalEntry);
+          } catch (final JsonProcessingException ex) {
+            throw new IllegalStateException(
+                "Could not serialize journal entry " + journalEntry.getTransactionIdentifier() + ".", ex);
+          }
+          try {
+            outputStream.write(line);
+            outputStream.write('\n');
+          } catch (final IOException ex) {
+            throw new ClientAbortException(ex);
+          }
+        }
+        try {
+          outputStream.flush();
+        } catch (final IOException ex) {
+          throw new ClientAbortException(ex);
+        }
+      });
+    } catch (final ClientAbortException ex) {
+      // the client went away, no further pages are read
+      this.logger.debug("Journal entry stream aborted by client.", ex.getCause());
+    }
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
+  @RequestMapping(
+      method = RequestMethod.GET,
+      params = "pageSize",
+      produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.ALL_VALUE}
+  )
+  @ResponseBody
+  ResponseEntity<JournalEntryPage> fetchJournalEntryPage(
+      @RequestParam(value = "dateRange", required = false) final String dateRange,
+      @RequestParam(value = "account", required = false) final String accountNumber,
+      @RequestParam(value = "amount", required = false) final BigDecimal amount,
+      @RequestParam(value = "cursor", required = false) final String cursor,
+      @RequestParam(value = "pageSize") final Integer pageSize
+  ) {
+    if (pageSize < 1 || pageSize > this.maxPageSize) {
+      throw ServiceException.badRequest("Page size must be between 1 and {0}.", this.maxPageSize);
+    }
+    final DateRange range = DateRange.fromIsoString(dateRange);
+
+    try {
+      return ResponseEntity.ok(
+          this.journalEntryService.fetchJournalEntryPage(range, accountNumber, amount, cursor, pageSize));
+    } catch (final IllegalArgumentException ex) {
+      throw ServiceException.badRequest(ex.getMessage());
+    }
+  }
+
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_JOURNAL)
   @RequestMapping(
       value = "/{transactionIdentifier}",
@@ -156,4 +304,72 @@ public class JournalRestController {
       throw ServiceException.notFound("Journal entry {0} not found.", transactionIdentifier);
     }
   }
+
+  private void validateJournalEntry(final JournalEntry journalEntry,
+                                    final Map<String, AccountProjection> accounts) {
+    if (journalEntry.getDebtors().size() == 0) {
+      throw ServiceException.badRequest("Debtors must be given.");
+    }
+    if (journalEntry.getCreditors().size() == 0) {
+      throw ServiceException.badRequest("Creditors must be given.");
+    }
+
+    // amounts are summed as minor units, so the balance check is exact
+    long debtorAmountSum = 0L;
+    for (final Debtor debtor : journalEntry.getDebtors()) {
+      final AccountProjection account = accounts.get(debtor.getAccountNumber());
+      if (account == null) {
+        throw ServiceException.badRequest("Unknown debtor account{0}.", debtor.getAccountNumber());
+      }
+      if (!account.getState().equals(Account.State.OPEN.name())) {
+        throw ServiceException.conflict("Debtor account{0} must be in state open.", debtor.getAccountNumber());
+      }
+      debtorAmountSum = this.addAmount(debtorAmountSum, debtor.getAmount());
+    }
+
+    long creditorAmountSum = 0L;
+    for (final Creditor creditor : journalEntry.getCreditors()) {
+      final AccountProjection account = accounts.get(creditor.getAccountNumber());
+      if (account == null) {
+        throw ServiceException.badRequest("Unknown creditor account{0}.", creditor.getAccountNumber());
+      }
+      if (!account.getState().equals(Account.State.OPEN.name())) {
+        throw ServiceException.conflict("Creditor account{0} must be in state open.", creditor.getAccountNumber());
+      }
+      creditorAmountSum = this.addAmount(creditorAmountSum, creditor.getAmount());
+    }
+
+    if (debtorAmountSum != creditorAmountSum) {
+      throw ServiceException.conflict(
+          "Sum of debtor and sum of creditor amounts must be equals.");
+    }
+  }
+
+  private static void collectAccountNumbers(final JournalEntry journalEntry, final Set<String> accountNumbers) {
+    if (journalEntry.getDebtors() != null) {
+      journalEntry.getDebtors().forEach(debtor -> accountNumbers.add(debtor.getAccountNumber()));
+    }
+    if (journalEntry.getCreditors() != null) {
+      journalEntry.getCreditors().forEach(creditor -> accountNumbers.add(creditor.getAccountNumber()));
+    }
+    accountNumbers.remove(null);
+  }
+
+  private long addAmount(final long sum, final String amount) {
+    try {
+      return Money.add(sum, Money.parse(amount));
+    } catch (final ArithmeticException | NumberFormatException ex) {
+      throw ServiceException.badRequest("Amount {0} must be a decimal with at most {1} fraction digits.",
+          amount, Money.SCALE);
+    }
+  }
+
+  /**
+   * Signals that writing the response failed, only this ends a stream quietly.
+   */
+  private static class ClientAbortException extends RuntimeException {
+    private ClientAbortException(final IOException cause) {
+      super(cause);
+    }
+  }
 }
@@ -94,11 +94,12 @@ public class LedgerRestController {
                                           @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
                                           @RequestParam(value = "size", required = false) final Integer size,
                                           @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-                                          @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
+                                          @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                          @RequestParam(value = "slice", required = false, defaultValue = "false") final boolean slice) {
 
     return ResponseEntity.ok(
         this.ledgerService.fetchLedgers(
-            includeSubLedgers, term, type, PageableBuilder.create(pageIndex, size, sortColumn, sortDirection)
+            includeSubLedgers, term, type, PageableBuilder.create(pageIndex, size, sortColumn, sortDirection), slice
         )
     );
   }
@@ -213,11 +214,12 @@ public class LedgerRestController {
                                                     @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
                                                     @RequestParam(value = "size", required = false) final Integer size,
                                                     @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-                                                    @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
+                                                    @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                                    @RequestParam(value = "slice", required = false, defaultValue = "false") final boolean slice) {
     if (!this.ledgerService.findLedger(identifier).isPresent()) {
       throw ServiceException.notFound("Ledger {0} not found.", identifier);
     }
-    return ResponseEntity.ok(this.ledgerService.fetchAccounts(identifier, PageableBuilder.create(pageIndex, size, sortColumn, sortDirection)));
+    return ResponseEntity.ok(this.ledgerService.fetchAccounts(identifier, PageableBuilder.create(pageIndex, size, sortColumn, sortDirection), slice));
   }
 
 }
@@ -87,11 +87,12 @@ public class TransactionTypeRestController {
                                                             @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
                                                             @RequestParam(value = "size", required = false) final Integer size,
                                                             @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-                                                            @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
+                                                            @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                                            @RequestParam(value = "slice", required = false, defaultValue = "false") final boolean slice) {
     final String column2sort = "code".equalsIgnoreCase(sortColumn) ? "identifier" : sortColumn;
     return ResponseEntity.ok(
         this.transactionTypeService.fetchTransactionTypes(term,
-            PageableBuilder.create(pageIndex, size, column2sort, sortDirection)));
+            PageableBuilder.create(pageIndex, size, column2sort, sortDirection), slice));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.THOTH_TX_TYPES)
@@ -0,0 +1,26 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+--
+
+-- Flyway runs these statements outside of a transaction, CREATE INDEX CONCURRENTLY does not lock the tables for
+-- writes while the indexes are built. thoth_account_entries.account_id is covered by
+-- thoth_account_entries_account_date_idx.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS thoth_accounts_ledger_idx ON thoth_accounts (ledger_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS thoth_accounts_reference_account_idx ON thoth_accounts (reference_account_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS thoth_ledgers_parent_ledger_idx ON thoth_ledgers (parent_ledger_id, identifier);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS thoth_commands_account_idx ON thoth_commands (account_id);
@@ -0,0 +1,29 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+--
+
+CREATE TABLE thoth_account_daily_balances (
+  account_id      BIGINT         NOT NULL,
+  balance_date    DATE           NOT NULL,
+  opening_balance NUMERIC(15, 5) NOT NULL,
+  closing_balance NUMERIC(15, 5) NOT NULL,
+  debit_turnover  NUMERIC(15, 5) NOT NULL,
+  credit_turnover NUMERIC(15, 5) NOT NULL,
+  CONSTRAINT thoth_account_daily_balances_pk PRIMARY KEY (account_id, balance_date),
+  CONSTRAINT thoth_account_daily_balances_accounts_fk FOREIGN KEY (account_id) REFERENCES thoth_accounts (id)
+);
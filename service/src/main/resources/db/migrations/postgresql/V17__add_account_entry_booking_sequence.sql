@@ -0,0 +1,34 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+--
+
+-- ids are handed out in blocks per node, so they do not follow booking order across nodes; entries are numbered per
+-- account while the account is locked instead. Existing entries are numbered in id order.
+ALTER TABLE thoth_accounts ADD COLUMN booking_sequence BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE thoth_account_entries ADD COLUMN booking_sequence BIGINT;
+
+UPDATE thoth_account_entries e SET booking_sequence = n.booking_sequence
+  FROM (SELECT id, row_number() OVER (PARTITION BY account_id ORDER BY id) AS booking_sequence
+        FROM thoth_account_entries) n
+  WHERE e.id = n.id;
+
+UPDATE thoth_accounts a SET booking_sequence = n.booking_sequence
+  FROM (SELECT account_id, MAX(booking_sequence) AS booking_sequence FROM thoth_account_entries GROUP BY account_id) n
+  WHERE a.id = n.account_id;
+
+ALTER TABLE thoth_account_entries ALTER COLUMN booking_sequence SET NOT NULL;
@@ -0,0 +1,31 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+--
+
+-- the balance an account was created with is its balance as of any date before its first entry. Accounts without
+-- entries still hold it, for the others it is taken back from the first entry booked.
+ALTER TABLE thoth_accounts ADD COLUMN opening_balance NUMERIC(15, 5);
+
+UPDATE thoth_accounts SET opening_balance = balance WHERE booking_sequence = 0;
+
+UPDATE thoth_accounts a SET opening_balance = e.balance -
+    CASE WHEN (e.a_type = 'DEBIT') = (a.a_type IN ('ASSET', 'EXPENSE')) THEN e.amount ELSE -e.amount END
+  FROM thoth_account_entries e
+  WHERE e.account_id = a.id AND e.booking_sequence = 1;
+
+ALTER TABLE thoth_accounts ALTER COLUMN opening_balance SET NOT NULL;
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.mapper;
+
+import org.apache.fineract.cn.accounting.service.internal.repository.LedgerEntity;
+import java.math.BigDecimal;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LedgerMapperTest {
+
+  public LedgerMapperTest() {
+    super();
+  }
+
+  @Test
+  public void shouldAddUnfoldedShardsToTotalValue() {
+    final LedgerEntity ledgerEntity = new LedgerEntity();
+    ledgerEntity.setTotalValue(new BigDecimal("100.50"));
+    ledgerEntity.setShardedTotalValue(new BigDecimal("-20.25"));
+
+    Assert.assertEquals(0, new BigDecimal("80.25").compareTo(LedgerMapper.mapTotalValue(ledgerEntity)));
+  }
+
+  @Test
+  public void shouldTreatMissingTotalValueAsZero() {
+    final LedgerEntity ledgerEntity = new LedgerEntity();
+    ledgerEntity.setShardedTotalValue(new BigDecimal("12.00"));
+
+    Assert.assertEquals(0, new BigDecimal("12.00").compareTo(LedgerMapper.mapTotalValue(ledgerEntity)));
+  }
+
+  @Test
+  public void shouldTreatMissingShardsAsZero() {
+    final LedgerEntity ledgerEntity = new LedgerEntity();
+    ledgerEntity.setTotalValue(new BigDecimal("7.00"));
+
+    Assert.assertEquals(0, new BigDecimal("7.00").compareTo(LedgerMapper.mapTotalValue(ledgerEntity)));
+  }
+
+  @Test
+  public void shouldMapEmptyLedgerToZero() {
+    Assert.assertEquals(0, BigDecimal.ZERO.compareTo(LedgerMapper.mapTotalValue(new LedgerEntity())));
+  }
+}
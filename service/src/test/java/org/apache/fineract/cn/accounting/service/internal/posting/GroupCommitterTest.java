@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.posting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupCommitterTest {
+
+  private static final String BAD_ITEM = "bad";
+
+  private ExecutorService submitters;
+  private List<List<String>> groupsApplied;
+  private List<String> itemsApplied;
+
+  public GroupCommitterTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() {
+    this.submitters = Executors.newFixedThreadPool(3);
+    this.groupsApplied = Collections.synchronizedList(new ArrayList<>());
+    this.itemsApplied = Collections.synchronizedList(new ArrayList<>());
+  }
+
+  @After
+  public void cleanUp() {
+    this.submitters.shutdownNow();
+  }
+
+  @Test
+  public void shouldApplyFullGroupAtOnce() throws Exception {
+    final GroupCommitter<String> groupCommitter = this.groupCommitter(3);
+
+    final List<Future<?>> results = this.submitAll(groupCommitter, "a", "b", "c");
+    for (final Future<?> result : results) {
+      result.get(10L, TimeUnit.SECONDS);
+    }
+
+    Assert.assertEquals(1, this.groupsApplied.size());
+    Assert.assertEquals(3, this.groupsApplied.get(0).size());
+    Assert.assertTrue(this.itemsApplied.isEmpty());
+  }
+
+  @Test
+  public void shouldFallBackToItemsIfGroupFails() throws Exception {
+    final GroupCommitter<String> groupCommitter = this.groupCommitter(3);
+
+    final List<Future<?>> results = this.submitAll(groupCommitter, "a", BAD_ITEM, "c");
+
+    int failures = 0;
+    for (final Future<?> result : results) {
+      try {
+        result.get(10L, TimeUnit.SECONDS);
+      } catch (final ExecutionException ex) {
+        Assert.assertTrue(ex.getCause() instanceof IllegalArgumentException);
+        failures++;
+      }
+    }
+
+    // the group was attempted once, then each item was applied on its own and only the bad one failed
+    Assert.assertEquals(1, failures);
+    Assert.assertEquals(1, this.groupsApplied.size());
+    Assert.assertEquals(3, this.itemsApplied.size());
+    Assert.assertTrue(this.itemsApplied.containsAll(Arrays.asList("a", "c")));
+  }
+
+  @Test
+  public void shouldApplyPartialGroupAfterLatency() throws Exception {
+    final GroupCommitter<String> groupCommitter = this.groupCommitter(10);
+
+    final List<Future<?>> results = this.submitAll(groupCommitter, "a");
+    results.get(0).get(10L, TimeUnit.SECONDS);
+
+    Assert.assertEquals(Collections.singletonList(Collections.singletonList("a")), this.groupsApplied);
+  }
+
+  @Test
+  public void shouldApplyItemDirectlyIfGroupingIsDisabled() {
+    TenantContextHolder.clear();
+    final GroupCommitter<String> groupCommitter = this.groupCommitter(1);
+
+    groupCommitter.submit("a");
+
+    Assert.assertTrue(this.groupsApplied.isEmpty());
+    Assert.assertEquals(Collections.singletonList("a"), this.itemsApplied);
+  }
+
+  private GroupCommitter<String> groupCommitter(final int maxGroupSize) {
+    // the latency is long enough for all submitters of a test to join the same group
+    return new GroupCommitter<>(maxGroupSize, 1000L,
+        items -> {
+          this.groupsApplied.add(new ArrayList<>(items));
+          if (items.contains(BAD_ITEM)) {
+            throw new IllegalArgumentException("Group contains " + BAD_ITEM + ".");
+          }
+        },
+        item -> {
+          this.itemsApplied.add(item);
+          if (item.equals(BAD_ITEM)) {
+            throw new IllegalArgumentException("Item is " + BAD_ITEM + ".");
+          }
+        });
+  }
+
+  private List<Future<?>> submitAll(final GroupCommitter<String> groupCommitter, final String... items) {
+    final List<Future<?>> results = new ArrayList<>();
+    for (final String item : items) {
+      results.add(this.submitters.submit(() -> {
+        TenantContextHolder.setIdentifier("test");
+        try {
+          groupCommitter.submit(item);
+        } finally {
+          TenantContextHolder.clear();
+        }
+      }));
+    }
+    return results;
+  }
+}
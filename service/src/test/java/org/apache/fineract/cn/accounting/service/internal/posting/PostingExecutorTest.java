@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.posting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.fineract.cn.command.gateway.CommandGateway;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+public class PostingExecutorTest {
+
+  private static final int POSTINGS = 200;
+
+  private CommandGateway commandGateway;
+  private List<Object> booked;
+  private PostingExecutor postingExecutor;
+
+  public PostingExecutorTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() {
+    TenantContextHolder.setIdentifier("test");
+    this.commandGateway = Mockito.mock(CommandGateway.class);
+    this.booked = Collections.synchronizedList(new ArrayList<>());
+    this.postingExecutor = new PostingExecutor(Mockito.mock(Logger.class), this.commandGateway,
+        Mockito.mock(CounterService.class), 8, 1000, 5, 1L);
+  }
+
+  @After
+  public void cleanUp() {
+    this.postingExecutor.shutdown();
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldBookPostingsOfOneAccountInSubmissionOrder() throws Exception {
+    final CountDownLatch done = new CountDownLatch(POSTINGS);
+    this.answer(command -> {
+      this.booked.add(command);
+      done.countDown();
+    });
+
+    final List<Object> submitted = new ArrayList<>();
+    for (int i = 0; i < POSTINGS; i++) {
+      final Object command = "posting-" + i;
+      submitted.add(command);
+      // the other account differs per posting, so the postings are spread over different lanes
+      this.postingExecutor.submit(Arrays.asList("shared", Integer.toString(i)), command);
+    }
+
+    Assert.assertTrue(done.await(10L, TimeUnit.SECONDS));
+    Assert.assertEquals(submitted, this.booked);
+  }
+
+  @Test
+  public void shouldKeepPlaceWhileRetrying() throws Exception {
+    final CountDownLatch done = new CountDownLatch(2);
+    final AtomicBoolean failedOnce = new AtomicBoolean(false);
+    this.answer(command -> {
+      if ("first".equals(command) && failedOnce.compareAndSet(false, true)) {
+        throw new OptimisticLockingFailureException("concurrent");
+      }
+      this.booked.add(command);
+      done.countDown();
+    });
+
+    this.postingExecutor.submit(Collections.singletonList("account"), "first");
+    this.postingExecutor.submit(Collections.singletonList("account"), "second");
+
+    Assert.assertTrue(done.await(10L, TimeUnit.SECONDS));
+    Assert.assertEquals(Arrays.asList("first", "second"), this.booked);
+  }
+
+  @Test
+  public void shouldBookDisjointAccountsConcurrently() throws Exception {
+    final CountDownLatch bothRunning = new CountDownLatch(2);
+    this.answer(command -> {
+      bothRunning.countDown();
+      try {
+        // only returns early if the other posting runs at the same time
+        bothRunning.await(5L, TimeUnit.SECONDS);
+      } catch (final InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    });
+
+    // account numbers chosen to land on different lanes
+    String other = "b";
+    for (int i = 0; Math.floorMod(other.hashCode(), 8) == Math.floorMod("a".hashCode(), 8); i++) {
+      other = "b" + i;
+    }
+    this.postingExecutor.submit(Collections.singletonList("a"), "first");
+    this.postingExecutor.submit(Collections.singletonList(other), "second");
+
+    Assert.assertTrue(bothRunning.await(10L, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldReleaseCapacityOfFailedSubmissions() throws Exception {
+    // a single lane holding a single posting, a leaked permit blocks the next submission
+    this.postingExecutor.shutdown();
+    this.postingExecutor = new PostingExecutor(Mockito.mock(Logger.class), this.commandGateway,
+        Mockito.mock(CounterService.class), 1, 1, 5, 1L);
+    final CountDownLatch done = new CountDownLatch(1);
+    this.answer(command -> {
+      this.booked.add(command);
+      done.countDown();
+    });
+
+    TenantContextHolder.clear();
+    for (int i = 0; i < 2; i++) {
+      try {
+        this.postingExecutor.submit(Collections.singletonList("account"), "without-tenant");
+        Assert.fail("Posting without tenant should be rejected.");
+      } catch (final RuntimeException ex) {
+        // expected
+      }
+    }
+
+    final Thread submitter = new Thread(() -> {
+      TenantContextHolder.setIdentifier("test");
+      this.postingExecutor.submit(Collections.singletonList("account"), "with-tenant");
+    });
+    submitter.start();
+    submitter.join(5000L);
+    Assert.assertFalse(submitter.isAlive());
+    Assert.assertTrue(done.await(10L, TimeUnit.SECONDS));
+    Assert.assertEquals(Collections.singletonList("with-tenant"), this.booked);
+  }
+
+  private void answer(final Booking booking) {
+    Mockito.when(this.commandGateway.process(Matchers.any(), Matchers.eq(Object.class))).thenAnswer(invocation -> {
+      final CompletableFuture<Object> future = new CompletableFuture<>();
+      try {
+        booking.book(invocation.getArguments()[0]);
+        future.complete(null);
+      } catch (final RuntimeException ex) {
+        future.completeExceptionally(ex);
+      }
+      return future;
+    });
+  }
+
+  private interface Booking {
+    void book(final Object command);
+  }
+}
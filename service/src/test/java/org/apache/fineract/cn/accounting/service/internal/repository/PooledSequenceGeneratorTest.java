@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Properties;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+public class PooledSequenceGeneratorTest {
+
+  private SessionImplementor session;
+  private ResultSet resultSet;
+  private PooledSequenceGenerator generator;
+
+  public PooledSequenceGeneratorTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() throws Exception {
+    this.session = Mockito.mock(SessionImplementor.class, Mockito.RETURNS_DEEP_STUBS);
+    this.resultSet = Mockito.mock(ResultSet.class);
+    Mockito.when(this.session.getJdbcCoordinator().getResultSetReturn().extract(Matchers.any(PreparedStatement.class)))
+        .thenReturn(this.resultSet);
+    // a sequence with an increment of 50, as shared by all nodes of a tenant
+    Mockito.when(this.resultSet.getLong(1)).thenReturn(1L, 51L, 101L);
+
+    final Properties params = new Properties();
+    params.setProperty(PooledSequenceGenerator.SEQUENCE_NAME, "thoth_account_entries_id_seq");
+    params.setProperty(PooledSequenceGenerator.INCREMENT_SIZE, "50");
+    this.generator = new PooledSequenceGenerator();
+    this.generator.configure(null, params, null);
+  }
+
+  @After
+  public void cleanUp() {
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldHandOutWholeBlockBeforeCallingSequence() {
+    TenantContextHolder.setIdentifier("alpha");
+    for (long expected = 1L; expected <= 50L; expected++) {
+      Assert.assertEquals(expected, this.generator.generate(this.session, null));
+    }
+    Assert.assertEquals(51L, this.generator.generate(this.session, null));
+    this.verifySequenceCalls(2);
+  }
+
+  @Test
+  public void shouldKeepBlocksPerTenant() {
+    TenantContextHolder.setIdentifier("alpha");
+    Assert.assertEquals(1L, this.generator.generate(this.session, null));
+
+    // the block reserved for alpha must not leak into beta, whose database has its own sequence
+    TenantContextHolder.setIdentifier("beta");
+    Assert.assertEquals(51L, this.generator.generate(this.session, null));
+    Assert.assertEquals(52L, this.generator.generate(this.session, null));
+
+    TenantContextHolder.setIdentifier("alpha");
+    Assert.assertEquals(2L, this.generator.generate(this.session, null));
+    this.verifySequenceCalls(2);
+  }
+
+  private void verifySequenceCalls(final int times) {
+    Mockito.verify(this.session.getJdbcCoordinator().getStatementPreparer(), Mockito.times(times))
+        .prepareStatement("SELECT nextval('thoth_account_entries_id_seq')");
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.repository;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.fineract.cn.cassandra.core.CassandraSessionProvider;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+public class TransactionIdentifierFilterTest {
+
+  private static final long EXPECTED_INSERTIONS = 100L;
+
+  private Session session;
+  private List<String> lookupTable;
+  private CountDownLatch scanAllowed;
+  private TransactionIdentifierFilter filter;
+
+  public TransactionIdentifierFilterTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() {
+    TenantContextHolder.setIdentifier("test");
+    this.lookupTable = new CopyOnWriteArrayList<>();
+    this.scanAllowed = new CountDownLatch(0);
+
+    this.session = Mockito.mock(Session.class);
+    Mockito.when(this.session.execute(Matchers.any(Statement.class))).thenAnswer(invocation -> {
+      Assert.assertTrue(this.scanAllowed.await(10L, TimeUnit.SECONDS));
+      final List<Row> rows = new ArrayList<>();
+      this.lookupTable.forEach(transactionIdentifier -> {
+        final Row row = Mockito.mock(Row.class);
+        Mockito.when(row.getString("transaction_identifier")).thenReturn(transactionIdentifier);
+        rows.add(row);
+      });
+      final ResultSet resultSet = Mockito.mock(ResultSet.class);
+      Mockito.when(resultSet.iterator()).thenReturn(rows.iterator());
+      return resultSet;
+    });
+    final CassandraSessionProvider cassandraSessionProvider = Mockito.mock(CassandraSessionProvider.class);
+    Mockito.when(cassandraSessionProvider.getTenantSession()).thenReturn(this.session);
+    final PreparedStatementCache preparedStatementCache = Mockito.mock(PreparedStatementCache.class);
+    Mockito.when(preparedStatementCache.bind(Matchers.anyString(), Matchers.<Object>anyVararg()))
+        .thenReturn(Mockito.mock(BoundStatement.class));
+
+    this.filter = new TransactionIdentifierFilter(Mockito.mock(Logger.class), cassandraSessionProvider,
+        preparedStatementCache, EXPECTED_INSERTIONS, 0.01D);
+  }
+
+  @After
+  public void cleanUp() {
+    this.filter.shutdown();
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldKeepFalsePositiveRateNearConfiguredProbability() {
+    final TransactionIdentifierFilter.BloomFilter bloomFilter =
+        new TransactionIdentifierFilter.BloomFilter(10000L, 0.01D);
+    for (int i = 0; i < 10000; i++) {
+      bloomFilter.put("known-" + i);
+    }
+    for (int i = 0; i < 10000; i++) {
+      Assert.assertTrue(bloomFilter.mightContain("known-" + i));
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 100000; i++) {
+      if (bloomFilter.mightContain("unknown-" + i)) {
+        falsePositives++;
+      }
+    }
+    Assert.assertTrue("False positive rate " + falsePositives / 100000.0D, falsePositives < 2000);
+  }
+
+  @Test
+  public void shouldCountEveryPut() {
+    final TransactionIdentifierFilter.BloomFilter bloomFilter =
+        new TransactionIdentifierFilter.BloomFilter(10L, 0.01D);
+    for (int i = 0; i < 10; i++) {
+      bloomFilter.put("same");
+    }
+    Assert.assertFalse(bloomFilter.isSaturated());
+    bloomFilter.put("same");
+    Assert.assertTrue(bloomFilter.isSaturated());
+  }
+
+  @Test
+  public void shouldAnswerMightContainUntilSeeded() throws Exception {
+    this.lookupTable.add("existing");
+    this.scanAllowed = new CountDownLatch(1);
+
+    Assert.assertTrue(this.filter.mightContain("unknown"));
+    Assert.assertTrue(this.filter.mightContain("unknown"));
+
+    this.scanAllowed.countDown();
+    this.awaitSeeded();
+    Assert.assertTrue(this.filter.mightContain("existing"));
+    Mockito.verify(this.session, Mockito.times(1)).execute(Matchers.any(Statement.class));
+  }
+
+  @Test
+  public void shouldKeepIdentifiersSavedWhileSeeding() throws Exception {
+    this.scanAllowed = new CountDownLatch(1);
+    Assert.assertTrue(this.filter.mightContain("unknown"));
+
+    // saved after the lookup table was read, but before the seeded filter is activated
+    this.filter.put("saved-while-seeding");
+    this.scanAllowed.countDown();
+
+    this.awaitSeeded();
+    Assert.assertTrue(this.filter.mightContain("saved-while-seeding"));
+  }
+
+  @Test
+  public void shouldRollOverWhenSaturated() throws Exception {
+    this.filter.mightContain("unknown");
+    this.awaitSeeded();
+
+    for (int i = 0; i <= EXPECTED_INSERTIONS; i++) {
+      final String transactionIdentifier = "saved-" + i;
+      this.lookupTable.add(transactionIdentifier);
+      this.filter.put(transactionIdentifier);
+    }
+
+    // the first put beyond the expected insertions seeds a filter of twice the capacity from the lookup table
+    Mockito.verify(this.session, Mockito.timeout(10000L).times(2)).execute(Matchers.any(Statement.class));
+    for (int i = 0; i <= EXPECTED_INSERTIONS; i++) {
+      Assert.assertTrue(this.filter.mightContain("saved-" + i));
+    }
+  }
+
+  @Test
+  public void shouldAlwaysAnswerMightContainIfDisabled() {
+    final TransactionIdentifierFilter disabledFilter = new TransactionIdentifierFilter(Mockito.mock(Logger.class),
+        Mockito.mock(CassandraSessionProvider.class), Mockito.mock(PreparedStatementCache.class), 0L, 0.01D);
+    try {
+      disabledFilter.put("saved");
+      Assert.assertTrue(disabledFilter.mightContain("unknown"));
+    } finally {
+      disabledFilter.shutdown();
+    }
+  }
+
+  private void awaitSeeded() throws InterruptedException {
+    // none of the identifiers used here is a false positive of the seeded filters
+    final long deadline = System.currentTimeMillis() + 10000L;
+    while (this.filter.mightContain("unknown")) {
+      Assert.assertTrue("Condition not met in time.", System.currentTimeMillis() < deadline);
+      Thread.sleep(10L);
+    }
+  }
+}
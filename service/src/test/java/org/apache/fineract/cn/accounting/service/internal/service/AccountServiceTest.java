@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.service;
+
+import org.apache.fineract.cn.accounting.api.v1.domain.AccountBalance;
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountEntity;
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountEntryRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.AccountRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.CommandRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.SpecificationSliceExecutor;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.TimeZone;
+import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+
+public class AccountServiceTest {
+
+  private static final LocalDateTime AS_OF = LocalDateTime.of(2017, 6, 1, 12, 0);
+
+  private TimeZone defaultTimeZone;
+  private AccountRepository accountRepository;
+  private AccountEntryRepository accountEntryRepository;
+  private AccountService accountService;
+
+  public AccountServiceTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() {
+    this.defaultTimeZone = TimeZone.getDefault();
+    this.accountRepository = Mockito.mock(AccountRepository.class);
+    this.accountEntryRepository = Mockito.mock(AccountEntryRepository.class);
+    this.accountService = new AccountService(this.accountRepository, this.accountEntryRepository,
+        Mockito.mock(CommandRepository.class), Mockito.mock(AccountProjectionCache.class),
+        Mockito.mock(SpecificationSliceExecutor.class));
+  }
+
+  @After
+  public void cleanUp() {
+    TimeZone.setDefault(this.defaultTimeZone);
+  }
+
+  @Test
+  public void shouldFindOpeningBalanceWithoutEntryAsOf() {
+    final AccountEntity accountEntity = new AccountEntity();
+    accountEntity.setIdentifier("7010");
+    accountEntity.setBalance(150.00D);
+    accountEntity.setOpeningBalance(100.00D);
+    Mockito.when(this.accountRepository.findByIdentifier("7010")).thenReturn(accountEntity);
+    Mockito.when(this.accountEntryRepository.findLatest(Matchers.eq(accountEntity), Matchers.eq(AS_OF),
+        Matchers.any(Pageable.class))).thenReturn(Collections.emptyList());
+
+    final AccountBalance accountBalance = this.accountService.findAccountBalance("7010", AS_OF);
+
+    Assert.assertEquals(100.00D, accountBalance.getBalance(), 0.00001D);
+  }
+
+  @Test
+  public void shouldBindBalancesAsOfLikeTransactionDates() {
+    // the native balance query binds a timestamp of its own, it has to match the one transaction dates are stored with
+    for (final String timeZone : new String[]{"UTC", "Asia/Kolkata", "America/St_Johns", "Pacific/Chatham"}) {
+      TimeZone.setDefault(TimeZone.getTimeZone(timeZone));
+      Mockito.reset(this.accountEntryRepository);
+
+      this.accountService.fetchAccountBalances(Collections.singletonList("7010"), AS_OF);
+
+      final ArgumentCaptor<Timestamp> asOf = ArgumentCaptor.forClass(Timestamp.class);
+      Mockito.verify(this.accountEntryRepository)
+          .findBalancesAsOf(Matchers.anyCollectionOf(String.class), asOf.capture());
+      Assert.assertEquals(timeZone, new LocalDateTimeConverter().convertToDatabaseColumn(AS_OF), asOf.getValue());
+      Assert.assertEquals(timeZone, AS_OF, asOf.getValue().toLocalDateTime());
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.internal.util;
+
+import java.math.BigDecimal;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MoneyTest {
+
+  private static final long MAX_UNITS = 999999999999999L;
+
+  public MoneyTest() {
+    super();
+  }
+
+  @Test
+  public void shouldParseDecimals() {
+    Assert.assertEquals(5000000L, Money.parse("50"));
+    Assert.assertEquals(5000000L, Money.parse("50.00"));
+    Assert.assertEquals(5000000L, Money.parse("+50.0"));
+    Assert.assertEquals(-50000L, Money.parse("-0.5"));
+    Assert.assertEquals(50000L, Money.parse(".5"));
+    Assert.assertEquals(112345L, Money.parse("1.12345"));
+    Assert.assertEquals(0L, Money.parse("0"));
+  }
+
+  @Test
+  public void shouldParseTrailingZerosBeyondScale() {
+    Assert.assertEquals(112345L, Money.parse("1.1234500000"));
+  }
+
+  @Test
+  public void shouldParseExponentNotation() {
+    Assert.assertEquals(10000000L, Money.parse("1E+2"));
+    Assert.assertEquals(1L, Money.parse("1e-5"));
+  }
+
+  @Test
+  public void shouldParseLimits() {
+    Assert.assertEquals(MAX_UNITS, Money.parse("9999999999.99999"));
+    Assert.assertEquals(-MAX_UNITS, Money.parse("-9999999999.99999"));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotParseScaleOverflow() {
+    Money.parse("1.123456");
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotParseScaleOverflowInExponentNotation() {
+    Money.parse("1e-6");
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotParseIntegerOverflow() {
+    Money.parse("10000000000");
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotParseOverflowWhileScaling() {
+    // the integer digits alone fit, scaling them to minor units does not
+    Money.parse("99999999999");
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void shouldNotParseEmpty() {
+    Money.parse("");
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void shouldNotParseSignOnly() {
+    Money.parse("-");
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void shouldNotParseGarbage() {
+    Money.parse("12a");
+  }
+
+  @Test
+  public void shouldConvertBigDecimal() {
+    Assert.assertEquals(112345L, Money.valueOf(new BigDecimal("1.12345")));
+    Assert.assertEquals(100000L, Money.valueOf(new BigDecimal("1.0000000")));
+    Assert.assertEquals(MAX_UNITS, Money.valueOf(new BigDecimal("9999999999.99999")));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotConvertBigDecimalScaleOverflow() {
+    Money.valueOf(new BigDecimal("1.123456"));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotConvertBigDecimalOutOfRange() {
+    Money.valueOf(new BigDecimal("10000000000"));
+  }
+
+  @Test
+  public void shouldRoundDoubleToNearestMinorUnit() {
+    // neither of these has an exact binary representation
+    Assert.assertEquals(30000L, Money.valueOf(0.1D + 0.2D));
+    Assert.assertEquals(100500L, Money.valueOf(1.005D));
+    Assert.assertEquals(-100500L, Money.valueOf(-1.005D));
+    Assert.assertEquals(1L, Money.valueOf(0.000005D));
+    Assert.assertEquals(0L, Money.valueOf(0.000004D));
+  }
+
+  @Test
+  public void shouldRoundTripPersistedValuesThroughDouble() {
+    for (final String value : new String[]{"0.00001", "1234567890.12345", "9999999999.99999", "-0.1", "49.99"}) {
+      final long units = Money.parse(value);
+      Assert.assertEquals(value, units, Money.valueOf(Money.toDouble(units)));
+      Assert.assertEquals(value, units, Money.valueOf(Money.toBigDecimal(units)));
+    }
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotConvertDoubleOutOfRange() {
+    Money.valueOf(1.0E10D);
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotConvertNaN() {
+    Money.valueOf(Double.NaN);
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotConvertInfinity() {
+    Money.valueOf(Double.NEGATIVE_INFINITY);
+  }
+
+  @Test
+  public void shouldAdd() {
+    Assert.assertEquals(150000L, Money.add(100000L, 50000L));
+    Assert.assertEquals(-50000L, Money.add(50000L, -100000L));
+    Assert.assertEquals(MAX_UNITS, Money.add(MAX_UNITS - 1L, 1L));
+    Assert.assertEquals(0L, Money.add(MAX_UNITS, -MAX_UNITS));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotAddBeyondRange() {
+    Money.add(MAX_UNITS, 1L);
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void shouldNotAddBeyondNegativeRange() {
+    Money.add(-MAX_UNITS, -1L);
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.accounting.service.rest;
+
+import org.apache.fineract.cn.accounting.api.v1.domain.JournalEntry;
+import org.apache.fineract.cn.accounting.service.internal.repository.CreditorType;
+import org.apache.fineract.cn.accounting.service.internal.repository.DebtorType;
+import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryChunk;
+import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryEntity;
+import org.apache.fineract.cn.accounting.service.internal.repository.JournalEntryRepository;
+import org.apache.fineract.cn.accounting.service.internal.repository.TransactionIdentifierFilter;
+import org.apache.fineract.cn.accounting.service.internal.service.AccountService;
+import org.apache.fineract.cn.accounting.service.internal.service.JournalEntryService;
+import org.apache.fineract.cn.accounting.service.internal.service.TransactionTypeCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.fineract.cn.command.gateway.CommandGateway;
+import org.apache.fineract.cn.lang.DateRange;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class JournalRestControllerTest {
+
+  private static final String DATE_RANGE = "2017-03-10..2017-03-12";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private JournalEntryRepository journalEntryRepository;
+  private JournalEntryService journalEntryService;
+  private JournalRestController journalRestController;
+
+  public JournalRestControllerTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() {
+    this.journalEntryRepository = Mockito.mock(JournalEntryRepository.class);
+    Mockito.when(this.journalEntryRepository.fetchJournalEntries(
+        Matchers.any(DateRange.class), Matchers.isNull(String.class), Matchers.anyInt()))
+        .thenReturn(new JournalEntryChunk(Arrays.asList(journalEntry("one"), journalEntry("two")), "next"));
+    Mockito.when(this.journalEntryRepository.fetchJournalEntries(
+        Matchers.any(DateRange.class), Matchers.eq("next"), Matchers.anyInt()))
+        .thenReturn(new JournalEntryChunk(Collections.singletonList(journalEntry("three")), null));
+
+    this.journalEntryService = new JournalEntryService(Mockito.mock(Logger.class),
+        this.journalEntryRepository, Mockito.mock(TransactionTypeCache.class),
+        Mockito.mock(TransactionIdentifierFilter.class));
+    this.journalRestController = this.journalRestController(this.objectMapper);
+  }
+
+  @Test
+  public void shouldStreamOneJournalEntryPerLine() throws Exception {
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    this.journalRestController.streamJournalEntries(DATE_RANGE, null, null, response);
+
+    Assert.assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+    final String content = response.getContentAsString();
+    Assert.assertTrue(content.endsWith("\n"));
+    final List<String> transactionIdentifiers = new ArrayList<>();
+    for (final String line : content.split("\n")) {
+      transactionIdentifiers.add(this.objectMapper.readValue(line, JournalEntry.class).getTransactionIdentifier());
+    }
+    Assert.assertEquals(Arrays.asList("one", "two", "three"), transactionIdentifiers);
+  }
+
+  @Test
+  public void shouldStopReadingPagesIfClientWentAway() throws Exception {
+    final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+    Mockito.when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(final int b) throws IOException {
+        throw new IOException("Broken pipe");
+      }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(final WriteListener writeListener) {
+      }
+    });
+
+    // the failed write ends the response quietly, without reading the next page
+    this.journalRestController.streamJournalEntries(DATE_RANGE, null, null, response);
+
+    Mockito.verify(this.journalEntryRepository).fetchJournalEntries(
+        Matchers.any(DateRange.class), Matchers.isNull(String.class), Matchers.anyInt());
+    Mockito.verify(this.journalEntryRepository, Mockito.never()).fetchJournalEntries(
+        Matchers.any(DateRange.class), Matchers.eq("next"), Matchers.anyInt());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldPropagateSerializationFailures() throws Exception {
+    final ObjectMapper failingObjectMapper = new ObjectMapper() {
+      @Override
+      public byte[] writeValueAsBytes(final Object value) throws JsonProcessingException {
+        throw new JsonMappingException("Cannot serialize");
+      }
+    };
+
+    // unlike a client that went away, this is a bug and must not end the response quietly
+    this.journalRestController(failingObjectMapper)
+        .streamJournalEntries(DATE_RANGE, null, null, new MockHttpServletResponse());
+  }
+
+  private JournalRestController journalRestController(final ObjectMapper objectMapper) {
+    return new JournalRestController(Mockito.mock(Logger.class), Mockito.mock(CommandGateway.class),
+        this.journalEntryService, Mockito.mock(AccountService.class), objectMapper, 1000, 1000);
+  }
+
+  private static JournalEntryEntity journalEntry(final String transactionIdentifier) {
+    final DebtorType debtorType = new DebtorType();
+    debtorType.setAccountNumber("debtor");
+    debtorType.setAmount(10.0D);
+    final CreditorType creditorType = new CreditorType();
+    creditorType.setAccountNumber("creditor");
+    creditorType.setAmount(10.0D);
+
+    final JournalEntryEntity journalEntryEntity = new JournalEntryEntity();
+    journalEntryEntity.setTransactionIdentifier(transactionIdentifier);
+    journalEntryEntity.setTransactionDate(LocalDateTime.of(2017, 3, 11, 12, 0));
+    journalEntryEntity.setDebtors(Collections.singleton(debtorType));
+    journalEntryEntity.setCreditors(Collections.singleton(creditorType));
+    journalEntryEntity.setState(JournalEntry.State.PROCESSED.name());
+    return journalEntryEntity;
+  }
+}